@@ -0,0 +1,93 @@
+package com.atom.netpaygateway.benchmark;
+
+import com.atom.netpaygateway.client.HttpClientNetty;
+import com.atom.netpaygateway.limiter.CircuitBreaker;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.route.Router;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.AsyncHttpClientConfig;
+import org.asynchttpclient.Dsl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HttpClientNetty 往返基准：进程内 Http 回显服务
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class HttpClientNettyBenchmark {
+
+    private static final int STUB_PORT = 19001;
+
+    private static final String STUB_PATH = "/mock/singleResponse";
+
+    /**
+     * 报文长度
+     */
+    @Param({"1024", "65536"})
+    private int payloadSize;
+
+    private String message;
+
+    private HttpServer server;
+
+    private AsyncHttpClient asyncHttpClient;
+
+    private HttpClientNetty client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        message = Payloads.xml(payloadSize);
+        server = StubServers.httpEcho(STUB_PORT, STUB_PATH);
+        asyncHttpClient = Dsl.asyncHttpClient(Dsl.config()
+                .setConnectTimeout(2000)
+                .setRequestTimeout(8000)
+                .setMaxConnections(100)
+                .setMaxConnectionsPerHost(100)
+                .setPooledConnectionIdleTimeout(60000)
+                .setResponseBodyPartFactory(AsyncHttpClientConfig.ResponseBodyPartFactory.LAZY));
+        Router<String> router = new Router<>("http",
+                Collections.singletonList("http://127.0.0.1:" + STUB_PORT + STUB_PATH), Router.P2C, 10000, 1000, 5000);
+        client = new HttpClientNetty(asyncHttpClient, router, CircuitBreaker.disabled("http"),
+                new GatewayMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(client, "connectTimeout", 8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        asyncHttpClient.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public String roundTrip() {
+        return client.sendMessage(message).join();
+    }
+}
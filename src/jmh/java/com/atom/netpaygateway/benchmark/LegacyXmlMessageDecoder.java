@@ -0,0 +1,55 @@
+package com.atom.netpaygateway.benchmark;
+
+import com.atom.netpaygateway.constants.Constants;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.CharsetUtil;
+
+import java.util.List;
+
+/**
+ * 旧版 XML 解析器（每次从头逐字节扫描），仅作为基准对照
+ * <p>
+ * 每次只输出一个报文，且 discardReadBytes 会覆盖已输出的 slice，只适用于单报文场景
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class LegacyXmlMessageDecoder extends ByteToMessageDecoder {
+
+    private static final byte[] END_MARK_BYTES = Constants.END_MARK.getBytes(CharsetUtil.UTF_8);
+
+    private static final int MAX_FRAME_SIZE = 1024 * 1024 * 4;
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> list) {
+        if (byteBuf.readableBytes() > MAX_FRAME_SIZE) {
+            byteBuf.clear();
+            throw new TooLongFrameException("Frame too large");
+        }
+        int endIndex = indexOf(byteBuf, END_MARK_BYTES);
+        if (endIndex != -1) {
+            int length = endIndex + END_MARK_BYTES.length;
+            list.add(byteBuf.readRetainedSlice(length));
+            byteBuf.discardReadBytes();
+        }
+    }
+
+    private int indexOf(ByteBuf haystack, byte[] needle) {
+        for (int i = 0; i < haystack.readableBytes() - needle.length + 1; i++) {
+            boolean match = true;
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack.getByte(i + j) != needle[j]) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,54 @@
+package com.atom.netpaygateway.benchmark;
+
+import com.atom.netpaygateway.constants.Constants;
+
+/**
+ * 基准测试报文构造
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public final class Payloads {
+
+    private static final String MSG_ID = "20261018000001";
+
+    private static final String HEAD = "<Document><GrpHdr><MsgId>" + MSG_ID + "</MsgId></GrpHdr>";
+
+    private static final String ENTRY = "<Ntry><Amt Ccy=\"CNY\">100.00</Amt><BkCd>102100099996</BkCd></Ntry>";
+
+    private Payloads() {
+    }
+
+    /**
+     * 构造指定字节数的 XML 报文（ASCII），以终止符结尾
+     *
+     * @param size 报文长度
+     * @return 返回值
+     */
+    public static String xml(int size) {
+        int body = size - HEAD.length() - Constants.END_MARK.length();
+        if (body < 0) {
+            throw new IllegalArgumentException("payload too small: " + size);
+        }
+        StringBuilder sb = new StringBuilder(size).append(HEAD);
+        while (body >= ENTRY.length()) {
+            sb.append(ENTRY);
+            body -= ENTRY.length();
+        }
+        for (int i = 0; i < body; i++) {
+            sb.append(' ');
+        }
+        return sb.append(Constants.END_MARK).toString();
+    }
+
+    /**
+     * 替换报文标识，用于需要唯一关联标识的场景
+     *
+     * @param xml 由 {@link #xml(int)} 构造的报文
+     * @param msgId 报文标识
+     * @return 返回值
+     */
+    public static String withMsgId(String xml, long msgId) {
+        return xml.replace(MSG_ID, String.valueOf(msgId));
+    }
+}
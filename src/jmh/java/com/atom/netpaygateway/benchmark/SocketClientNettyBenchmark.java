@@ -0,0 +1,115 @@
+package com.atom.netpaygateway.benchmark;
+
+import com.atom.netpaygateway.client.SocketChannelPool;
+import com.atom.netpaygateway.client.SocketClientNetty;
+import com.atom.netpaygateway.codec.FramingStrategy;
+import com.atom.netpaygateway.config.EventLoopTopology;
+import com.atom.netpaygateway.config.NettyTransport;
+import com.atom.netpaygateway.limiter.CircuitBreaker;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.route.Router;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SocketClientNetty 往返基准：进程内 Socket 回显服务
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class SocketClientNettyBenchmark {
+
+    /**
+     * 后端端口（与 SocketClientNetty 配置一致）
+     */
+    private static final int BACKEND_PORT = 8081;
+
+    /**
+     * 报文长度
+     */
+    @Param({"1024", "65536"})
+    private int payloadSize;
+
+    /**
+     * 是否多路复用
+     */
+    @Param({"false", "true"})
+    private boolean multiplexed;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private String message;
+
+    private EventLoopGroup serverGroup;
+
+    private EventLoopTopology topology;
+
+    private Channel server;
+
+    private SocketClientNetty client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        message = Payloads.xml(payloadSize);
+        serverGroup = new NioEventLoopGroup(2);
+        topology = new EventLoopTopology(NettyTransport.select(NettyTransport.NIO), 2, false, 1);
+        server = StubServers.socketEcho(serverGroup, BACKEND_PORT);
+
+        GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+        SocketChannelPool pool = new SocketChannelPool(topology, metrics, FramingStrategy.delimiter(4 * 1024 * 1024));
+        ReflectionTestUtils.setField(pool, "multiplexed", multiplexed);
+        ReflectionTestUtils.setField(pool, "correlationElement", "MsgId");
+        ReflectionTestUtils.setField(pool, "connectTimeout", 3000);
+        ReflectionTestUtils.setField(pool, "maxConnections", 64);
+        ReflectionTestUtils.setField(pool, "maxPendingAcquires", 1024);
+        ReflectionTestUtils.setField(pool, "acquireTimeout", 2000L);
+        ReflectionTestUtils.setField(pool, "idleTimeout", 60);
+        pool.init();
+        Router<InetSocketAddress> router = new Router<>("socket",
+                Collections.singletonList(new InetSocketAddress("127.0.0.1", BACKEND_PORT)), Router.P2C, 10000, 1000, 5000);
+        client = new SocketClientNetty(topology, pool, router, CircuitBreaker.disabled("socket"), metrics);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        topology.shutdown();
+        server.close().syncUninterruptibly();
+        serverGroup.shutdownGracefully().syncUninterruptibly();
+    }
+
+    @Benchmark
+    public String roundTrip() {
+        // 每笔使用唯一报文标识，多路复用模式按此匹配应答
+        return client.sendMessage(Payloads.withMsgId(message, sequence.incrementAndGet())).block();
+    }
+}
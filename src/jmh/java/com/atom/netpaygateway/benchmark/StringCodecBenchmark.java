@@ -0,0 +1,117 @@
+package com.atom.netpaygateway.benchmark;
+
+import com.atom.netpaygateway.codec.RequestEncoder;
+import com.atom.netpaygateway.codec.ResponseDecoder;
+import com.atom.netpaygateway.model.XmlMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+import io.netty.util.CharsetUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SocketNettyController pipeline 中 UTF-8 编解码基准：StringDecoder/StringEncoder 与 ResponseDecoder/RequestEncoder
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringCodecBenchmark {
+
+    /**
+     * 报文长度
+     */
+    @Param({"1024", "65536", "1048576"})
+    private int payloadSize;
+
+    private String message;
+
+    private ByteBuf frame;
+
+    private EmbeddedChannel channel;
+
+    private EmbeddedChannel codecChannel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        message = Payloads.xml(payloadSize);
+        frame = PooledByteBufAllocator.DEFAULT.directBuffer(payloadSize)
+                .writeBytes(message.getBytes(CharsetUtil.UTF_8));
+        channel = new EmbeddedChannel(new StringDecoder(CharsetUtil.UTF_8), new StringEncoder(CharsetUtil.UTF_8));
+        codecChannel = new EmbeddedChannel(new ResponseDecoder(), new RequestEncoder(PooledByteBufAllocator.DEFAULT));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        frame.release();
+        channel.finishAndReleaseAll();
+        codecChannel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int decode() {
+        channel.writeInbound(frame.retainedDuplicate());
+        String s = channel.readInbound();
+        return s.length();
+    }
+
+    @Benchmark
+    public int encode() {
+        channel.writeOutbound(message);
+        ByteBuf buf = channel.readOutbound();
+        int length = buf.readableBytes();
+        buf.release();
+        return length;
+    }
+
+    /**
+     * 只取报文视图，不解码文本
+     */
+    @Benchmark
+    public int decodeView() {
+        codecChannel.writeInbound(frame.retainedDuplicate());
+        XmlMessage message = codecChannel.readInbound();
+        int length = message.length();
+        message.release();
+        return length;
+    }
+
+    @Benchmark
+    public int decodeViewText() {
+        codecChannel.writeInbound(frame.retainedDuplicate());
+        XmlMessage message = codecChannel.readInbound();
+        int length = message.text().length();
+        message.release();
+        return length;
+    }
+
+    @Benchmark
+    public int encodeDirect() {
+        codecChannel.writeOutbound(message);
+        ByteBuf buf = codecChannel.readOutbound();
+        int length = buf.readableBytes();
+        buf.release();
+        return length;
+    }
+}
@@ -0,0 +1,81 @@
+package com.atom.netpaygateway.benchmark;
+
+import com.atom.netpaygateway.codec.XmlMessageDecoder;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+/**
+ * 基准测试用的进程内后端桩
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public final class StubServers {
+
+    private StubServers() {
+    }
+
+    /**
+     * 启动 Socket 回显服务：按 {@code </Document>} 分帧，原样返回每个报文
+     *
+     * @param group 处理进程
+     * @param port 监听端口
+     * @return 服务端通道
+     */
+    public static Channel socketEcho(EventLoopGroup group, int port) throws InterruptedException {
+        return new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new XmlMessageDecoder(), new SimpleChannelInboundHandler<ByteBuf>() {
+                            @Override
+                            protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+                                ctx.writeAndFlush(frame.retain());
+                            }
+                        });
+                    }
+                })
+                .bind(port).sync().channel();
+    }
+
+    /**
+     * 启动 Http 回显服务：POST 请求体原样作为应答
+     *
+     * @param port 监听端口
+     * @param path 路径
+     * @return Http 服务
+     */
+    public static HttpServer httpEcho(int port, String path) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext(path, exchange -> {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,77 @@
+package com.atom.netpaygateway.benchmark;
+
+import com.atom.netpaygateway.codec.XmlFieldExtractor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.CharsetUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报文字段提取基准：按字节扫描报文帧提取 MsgId、首笔金额与行号，对比先解码整个报文为 String 再提取，
+ * 以及已是 String 的报文（请求侧关联标识、幂等去重）只编码前缀后提取
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlFieldExtractorBenchmark {
+
+    /**
+     * 报文长度
+     */
+    @Param({"1024", "65536", "1048576", "4194304"})
+    private int payloadSize;
+
+    private final XmlFieldExtractor extractor = new XmlFieldExtractor(Arrays.asList("GrpHdr/MsgId", "Amt", "BkCd"));
+
+    private ByteBuf frame;
+
+    private String xml;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        xml = Payloads.xml(payloadSize);
+        byte[] bytes = xml.getBytes(CharsetUtil.UTF_8);
+        frame = PooledByteBufAllocator.DEFAULT.directBuffer(bytes.length).writeBytes(bytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        frame.release();
+    }
+
+    @Benchmark
+    public int extractor() {
+        return extractor.extract(frame).asMap().size();
+    }
+
+    @Benchmark
+    public int decodeThenExtract() {
+        return extractor.extract(frame.toString(CharsetUtil.UTF_8)).asMap().size();
+    }
+
+    @Benchmark
+    public int extractString() {
+        return extractor.extract(xml).asMap().size();
+    }
+}
@@ -0,0 +1,123 @@
+package com.atom.netpaygateway.benchmark;
+
+import com.atom.netpaygateway.codec.LengthFieldFrameDecoder;
+import com.atom.netpaygateway.codec.XmlMessageDecoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * XML 报文分帧基准：单报文按随机分段到达，对比新旧解码器与长度字段分帧（4 字节二进制长度头）
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlMessageDecoderBenchmark {
+
+    /**
+     * 报文长度
+     */
+    @Param({"1024", "65536", "1048576", "4194304"})
+    private int payloadSize;
+
+    /**
+     * 平均分段长度，实际分段在 [0.5, 1.5] 倍之间随机
+     */
+    @Param({"16384"})
+    private int segmentSize;
+
+    /**
+     * 报文
+     */
+    private ByteBuf payload;
+
+    /**
+     * 分段
+     */
+    private final List<ByteBuf> segments = new ArrayList<>();
+
+    /**
+     * 带长度头的分段
+     */
+    private final List<ByteBuf> framedSegments = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] bytes = Payloads.xml(payloadSize).getBytes(CharsetUtil.UTF_8);
+        payload = Unpooled.unreleasableBuffer(Unpooled.directBuffer(payloadSize).writeBytes(bytes));
+        ByteBuf framed = Unpooled.unreleasableBuffer(Unpooled.directBuffer(payloadSize + 4)
+                .writeInt(bytes.length).writeBytes(bytes));
+        split(payload, segments);
+        split(framed, framedSegments);
+    }
+
+    private void split(ByteBuf buf, List<ByteBuf> out) {
+        Random random = new Random(42);
+        int offset = 0;
+        while (offset < buf.readableBytes()) {
+            int length = Math.min(buf.readableBytes() - offset, segmentSize / 2 + random.nextInt(segmentSize + 1));
+            out.add(buf.slice(offset, length));
+            offset += length;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        segments.clear();
+        framedSegments.clear();
+    }
+
+    @Benchmark
+    public int singlePass() {
+        return decode(XmlMessageDecoder::new, segments);
+    }
+
+    @Benchmark
+    public int legacy() {
+        return decode(LegacyXmlMessageDecoder::new, segments);
+    }
+
+    @Benchmark
+    public int lengthField() {
+        return decode(() -> new LengthFieldFrameDecoder(4, false, false, payloadSize, null), framedSegments);
+    }
+
+    private int decode(Supplier<ChannelHandler> decoder, List<ByteBuf> segments) {
+        EmbeddedChannel channel = new EmbeddedChannel(decoder.get());
+        for (ByteBuf segment : segments) {
+            channel.writeInbound(segment.retainedDuplicate());
+        }
+        ByteBuf frame = channel.readInbound();
+        int length = frame.readableBytes();
+        frame.release();
+        channel.finishAndReleaseAll();
+        return length;
+    }
+}
@@ -0,0 +1,137 @@
+package com.atom.netpaygateway.loadtest;
+
+import com.atom.netpaygateway.constants.Constants;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 压测用后端桩：Socket 后端（12345/8081）与 Http 后端
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class BackendStubs implements AutoCloseable {
+
+    private static final byte[] END_MARK = Constants.END_MARK.getBytes(StandardCharsets.UTF_8);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "loadtest-stub");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<ServerSocket> socketServers = new ArrayList<>();
+
+    private HttpServer httpServer;
+
+    /**
+     * 启动 Socket 后端：按终止符分帧，原样回显每个报文
+     *
+     * @param port 端口
+     * @param keepAlive 是否长连接；否则应答后关闭（SocketClientSingle 读到 EOF 为止）
+     */
+    public void startSocket(int port, boolean keepAlive) throws IOException {
+        ServerSocket server = new ServerSocket(port, 1024);
+        socketServers.add(server);
+        executor.execute(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    executor.execute(() -> echo(socket, keepAlive));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * 启动 Http 后端：POST 请求体原样作为应答
+     *
+     * @param url 网关转发的 Http 地址
+     */
+    public void startHttp(String url) throws IOException {
+        URI uri = URI.create(url);
+        // JDK HttpServer 默认开启 Nagle，应答头与应答体分开写时会叠加 40ms 延迟确认
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        httpServer = HttpServer.create(new InetSocketAddress(uri.getPort()), 1024);
+        httpServer.createContext(uri.getPath(), exchange -> {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/xml;charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpServer.setExecutor(executor);
+        httpServer.start();
+    }
+
+    private void echo(Socket socket, boolean keepAlive) {
+        try (Socket s = socket; InputStream in = new BufferedInputStream(s.getInputStream());
+             OutputStream out = s.getOutputStream()) {
+            byte[] frame;
+            while ((frame = readFrame(in)) != null) {
+                out.write(frame);
+                out.flush();
+                if (!keepAlive) {
+                    return;
+                }
+            }
+        } catch (IOException ignored) {
+            // 客户端断开
+        }
+    }
+
+    /**
+     * 读取一个以终止符结尾的报文（调用方需传入带缓冲的流）
+     *
+     * @param in 输入流
+     * @return 报文，连接已关闭时返回 null
+     */
+    static byte[] readFrame(InputStream in) throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(4096);
+        int matched = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            frame.write(b);
+            matched = b == END_MARK[matched] ? matched + 1 : (b == END_MARK[0] ? 1 : 0);
+            if (matched == END_MARK.length) {
+                return frame.toByteArray();
+            }
+        }
+        return frame.size() == 0 ? null : frame.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        for (ServerSocket server : socketServers) {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // 忽略
+            }
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+        executor.shutdownNow();
+    }
+}
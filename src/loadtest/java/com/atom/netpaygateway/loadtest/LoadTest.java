@@ -0,0 +1,144 @@
+package com.atom.netpaygateway.loadtest;
+
+import com.atom.netpaygateway.NetpayGatewayApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 网关端到端压测工具
+ * <p>
+ * 启动后端桩（Socket 12345/8081、Http 转发地址），默认在同一进程内启动网关，
+ * 依次以开环速率压测四个入口，输出 p50/p99/p99.9 延迟、吞吐与错误数。
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--rate=500 --duration=30"
+ * </pre>
+ * 参数：
+ * <ul>
+ *     <li>--rate 每秒请求数，默认 200</li>
+ *     <li>--warmup 预热秒数，默认 5</li>
+ *     <li>--duration 每个入口压测秒数，默认 20</li>
+ *     <li>--payload 报文字节数，默认 1024</li>
+ *     <li>--paths 压测入口，默认 recvMsg,recvMsg1,socketPool,socketNetty</li>
+ *     <li>--maxInFlight 最大在途请求数，默认 2000</li>
+ *     <li>--external 网关已单独启动时使用，只启动后端桩</li>
+ *     <li>--gatewayHost 网关地址，默认 127.0.0.1</li>
+ *     <li>--httpMockUrl Http 后端桩地址，默认 http://localhost:9001/mock/singleResponse</li>
+ *     <li>其余带 "." 的参数原样传给进程内网关，如 --gateway.listen.socket.netty.byteMode=true</li>
+ * </ul>
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "20"));
+        int payloadSize = Integer.parseInt(options.getOrDefault("payload", "1024"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("maxInFlight", "2000"));
+        String host = options.getOrDefault("gatewayHost", "127.0.0.1");
+        String httpMockUrl = options.getOrDefault("httpMockUrl", "http://localhost:9001/mock/singleResponse");
+        List<String> paths = Arrays.asList(options.getOrDefault("paths",
+                "recvMsg,recvMsg1,socketPool,socketNetty").split(","));
+
+        Duration timeout = Duration.ofSeconds(10);
+        Map<String, Target> targets = new HashMap<>();
+        targets.put("recvMsg", Target.http("recvMsg", "http://" + host + ":9000/netpay-gateway/recv-from-fe", timeout));
+        targets.put("recvMsg1", Target.http("recvMsg1", "http://" + host + ":9000/netpay-gateway/recv-from-fe1", timeout));
+        targets.put("socketPool", Target.socket("socketPool", host, 11111, timeout));
+        targets.put("socketNetty", Target.socket("socketNetty", host, 8080, timeout));
+
+        String template = payload(payloadSize);
+        List<OpenLoopDriver.Result> results = new ArrayList<>();
+        OpenLoopDriver driver = new OpenLoopDriver(maxInFlight);
+        ConfigurableApplicationContext gateway = null;
+        try (BackendStubs stubs = new BackendStubs()) {
+            // SocketClientSingle 读到 EOF 为止，应答后需关闭；SocketClientNetty 使用长连接
+            stubs.startSocket(12345, false);
+            stubs.startSocket(8081, true);
+            stubs.startHttp(httpMockUrl);
+            if (!options.containsKey("external")) {
+                gateway = SpringApplication.run(NetpayGatewayApplication.class, gatewayArgs(args));
+                // Socket -> Http Netty 服务异步启动
+                Thread.sleep(1000);
+            }
+
+            for (String path : paths) {
+                Target target = targets.get(path.trim());
+                if (target == null) {
+                    throw new IllegalArgumentException("unknown path: " + path);
+                }
+                System.out.printf("==> %s: %d req/s, warmup %ds, duration %ds, payload %d bytes%n",
+                        target.name(), rate, warmup, duration, payloadSize);
+                results.add(driver.run(target, n -> template.replace("{id}", String.format("%014d", n)),
+                        rate, warmup, duration));
+            }
+        } finally {
+            driver.shutdown();
+            if (gateway != null) {
+                gateway.close();
+            }
+        }
+        report(results);
+        System.exit(0);
+    }
+
+    /**
+     * 构造压测报文，{id} 为报文标识占位
+     *
+     * @param size 报文字节数
+     * @return 返回值
+     */
+    private static String payload(int size) {
+        String head = "<Document><GrpHdr><MsgId>{id}</MsgId></GrpHdr><Ntry>";
+        String tail = "</Ntry></Document>";
+        StringBuilder sb = new StringBuilder(size).append(head);
+        while (sb.length() + tail.length() < size) {
+            sb.append('0');
+        }
+        return sb.append(tail).toString();
+    }
+
+    private static void report(List<OpenLoopDriver.Result> results) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-12s %8s %10s %10s %10s %10s %10s %8s%n",
+                "path", "rate", "thrpt/s", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "errors");
+        for (OpenLoopDriver.Result r : results) {
+            System.out.printf(Locale.ROOT, "%-12s %8d %10.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                    r.name, r.rate, r.throughput(), r.millis(50), r.millis(99), r.millis(99.9),
+                    r.histogram.getMaxValue() / 1_000_000.0, r.errors);
+            r.errorTypes.forEach((type, count) -> System.out.printf("    %s: %d%n", type, count.get()));
+        }
+    }
+
+    private static String[] gatewayArgs(String[] args) {
+        return Arrays.stream(args).filter(arg -> arg.substring(0, Math.max(arg.indexOf('='), 0)).contains("."))
+                .toArray(String[]::new);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("unknown argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq == -1) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
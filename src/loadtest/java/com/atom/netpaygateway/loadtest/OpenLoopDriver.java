@@ -0,0 +1,152 @@
+package com.atom.netpaygateway.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * 开环压测驱动：按固定速率发出请求，不等待前一笔完成
+ * <p>
+ * 延迟从计划发出时间开始计算，避免协同遗漏（coordinated omission）
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class OpenLoopDriver {
+
+    /**
+     * 最大可记录延迟 纳秒
+     */
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int maxInFlight;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "loadtest-client");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 带参构造函数
+     *
+     * @param maxInFlight 最大在途请求数，超过后计为错误
+     */
+    public OpenLoopDriver(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 以指定速率压测一个入口
+     *
+     * @param target 入口
+     * @param payloads 第 n 笔请求的报文
+     * @param rate 每秒请求数
+     * @param warmupSeconds 预热时间 秒（不计入结果）
+     * @param durationSeconds 压测时间 秒
+     * @return 返回值
+     */
+    public Result run(Target target, LongFunction<String> payloads, int rate, int warmupSeconds, int durationSeconds)
+            throws InterruptedException {
+        Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+        AtomicLong errors = new AtomicLong();
+        Map<String, AtomicLong> errorTypes = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long sent = 0;
+        for (long intended = start; intended < end; intended += interval) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            final long scheduled = intended;
+            final boolean measured = intended >= measureStart;
+            final String payload = payloads.apply(sent++);
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    errors.incrementAndGet();
+                    errorTypes.computeIfAbsent("client saturated", k -> new AtomicLong()).incrementAndGet();
+                }
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    target.call(payload);
+                    if (measured) {
+                        recorder.recordValue(Math.min(System.nanoTime() - scheduled, MAX_LATENCY_NANOS));
+                    }
+                } catch (Exception e) {
+                    if (measured) {
+                        errors.incrementAndGet();
+                        errorTypes.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicLong())
+                                .incrementAndGet();
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        // 等待在途请求完成
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new Result(target.name(), rate, durationSeconds, histogram, errors.get(), errorTypes);
+    }
+
+    /**
+     * 关闭
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 单个入口的压测结果
+     */
+    public static class Result {
+
+        final String name;
+
+        final int rate;
+
+        final int durationSeconds;
+
+        final Histogram histogram;
+
+        final long errors;
+
+        final Map<String, AtomicLong> errorTypes;
+
+        Result(String name, int rate, int durationSeconds, Histogram histogram, long errors,
+               Map<String, AtomicLong> errorTypes) {
+            this.name = name;
+            this.rate = rate;
+            this.durationSeconds = durationSeconds;
+            this.histogram = histogram;
+            this.errors = errors;
+            this.errorTypes = errorTypes;
+        }
+
+        double millis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+        }
+
+        double throughput() {
+            return (double) histogram.getTotalCount() / durationSeconds;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.atom.netpaygateway.loadtest;
+
+import com.atom.netpaygateway.constants.Constants;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * 压测入口：一次阻塞调用，失败抛出异常
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public interface Target {
+
+    /**
+     * 名称
+     *
+     * @return 返回值
+     */
+    String name();
+
+    /**
+     * 发送一笔请求并等待应答
+     *
+     * @param payload 报文
+     */
+    void call(String payload) throws Exception;
+
+    /**
+     * Http 入口（recvMsg / recvMsg1）
+     *
+     * @param name 名称
+     * @param url 地址
+     * @param timeout 超时时间
+     * @return 返回值
+     */
+    static Target http(String name, String url, Duration timeout) {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        URI uri = URI.create(url);
+        return new Target() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void call(String payload) throws Exception {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(timeout)
+                        .header("Content-Type", "application/xml;charset=UTF-8")
+                        .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
+                        .build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() >= 400 || !response.body().contains(Constants.END_MARK)) {
+                    throw new IOException("HTTP " + response.statusCode() + ": " + abbreviate(response.body()));
+                }
+            }
+        };
+    }
+
+    /**
+     * Socket 入口（SocketPoolController / SocketNettyController），每笔新建连接
+     *
+     * @param name 名称
+     * @param host 地址
+     * @param port 端口
+     * @param timeout 超时时间
+     * @return 返回值
+     */
+    static Target socket(String name, String host, int port, Duration timeout) {
+        return new Target() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void call(String payload) throws Exception {
+                try (Socket socket = new Socket(host, port)) {
+                    socket.setSoTimeout((int) timeout.toMillis());
+                    socket.setTcpNoDelay(true);
+                    OutputStream out = socket.getOutputStream();
+                    out.write(payload.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    InputStream in = new BufferedInputStream(socket.getInputStream());
+                    byte[] frame = BackendStubs.readFrame(in);
+                    String response = frame == null ? "" : new String(frame, StandardCharsets.UTF_8);
+                    if (!response.contains(Constants.END_MARK)) {
+                        throw new IOException("invalid response: " + abbreviate(response));
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * 截断过长的应答用于错误信息
+     *
+     * @param s 应答
+     * @return 返回值
+     */
+    static String abbreviate(String s) {
+        return s.length() <= 64 ? s : s.substring(0, 64) + "...";
+    }
+}
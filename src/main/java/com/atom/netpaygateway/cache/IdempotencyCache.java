@@ -0,0 +1,280 @@
+package com.atom.netpaygateway.cache;
+
+import com.atom.netpaygateway.enums.EnumRespCode;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.codec.XmlFieldExtractor;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 幂等应答缓存：按报文标识（如 MsgId）缓存应答，吸收上游超时重发的重复报文
+ * <p>
+ * 已完成的重复报文直接返回缓存应答（hit）；原报文仍在处理中时，重复报文合并到同一个在途结果（coalesced），不再转发后端。
+ * 只缓存成功应答：异常或失败应答（{@link EnumRespCode#FAIL}）在原报文完成后移除，重发仍会转发后端。
+ * 缓存条数有上限，写入后 ttl 过期；超过 offHeapThreshold 个字符的应答以堆外内存保存
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+public class IdempotencyCache {
+
+    /**
+     * 结果：首次请求，转发后端
+     */
+    public static final String MISS = "miss";
+
+    /**
+     * 结果：重复请求，返回缓存应答
+     */
+    public static final String HIT = "hit";
+
+    /**
+     * 结果：重复请求，合并到在途请求
+     */
+    public static final String COALESCED = "coalesced";
+
+    /**
+     * 缓存名称
+     */
+    private final String name;
+
+    /**
+     * 是否启用
+     */
+    private final boolean enabled;
+
+    /**
+     * 报文标识所在的元素
+     */
+    private final String keyElement;
+
+    /**
+     * 报文标识提取，与多路复用关联标识使用同一实现
+     */
+    private final XmlFieldExtractor keyExtractor;
+
+    /**
+     * 应答超过该字符数时以堆外内存保存，0 表示不使用堆外内存
+     */
+    private final int offHeapThreshold;
+
+    /**
+     * 网关指标
+     */
+    private final GatewayMetrics metrics;
+
+    /**
+     * 报文标识 -> 应答
+     */
+    private final AsyncCache<String, Reply> cache;
+
+    /**
+     * 带参构造函数
+     *
+     * @param name 缓存名称
+     * @param enabled 是否启用
+     * @param keyElement 报文标识所在的元素
+     * @param maxSize 最大条数
+     * @param ttl 写入后过期时间
+     * @param offHeapThreshold 应答超过该字符数时以堆外内存保存，0 表示不使用堆外内存
+     * @param metrics 网关指标
+     */
+    public IdempotencyCache(String name, boolean enabled, String keyElement, long maxSize, Duration ttl,
+                            int offHeapThreshold, GatewayMetrics metrics) {
+        this.name = name;
+        this.enabled = enabled;
+        this.keyElement = keyElement.trim();
+        this.keyExtractor = new XmlFieldExtractor(Collections.singletonList(this.keyElement));
+        this.offHeapThreshold = offHeapThreshold;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        metrics.idempotencySize(name, this::size);
+    }
+
+    /**
+     * 异步请求去重
+     *
+     * @param request 请求报文
+     * @param call 转发后端
+     * @return 应答；取消返回的结果不影响合并到同一请求的其他调用方
+     */
+    public CompletableFuture<String> execute(String request, Supplier<CompletableFuture<String>> call) {
+        String key = key(request);
+        if (key == null) {
+            return call.get();
+        }
+        CompletableFuture<Reply> created = new CompletableFuture<>();
+        CompletableFuture<Reply> shared = cache.get(key, (k, executor) -> created);
+        if (shared != created) {
+            return duplicate(key, shared).thenApply(IdempotencyCache::text);
+        }
+        metrics.idempotency(name, MISS);
+        CompletableFuture<String> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+        return response.whenComplete((reply, ex) -> complete(key, created, reply, ex));
+    }
+
+    /**
+     * 异步请求去重-Reactor
+     *
+     * @param request 请求报文
+     * @param call 转发后端
+     * @return 应答
+     */
+    public Mono<String> executeMono(String request, Supplier<Mono<String>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        return Mono.defer(() -> Mono.fromFuture(execute(request, () -> call.get().toFuture())));
+    }
+
+    /**
+     * 同步请求去重：重复请求在调用线程等待原请求完成
+     *
+     * @param request 请求报文
+     * @param call 转发后端
+     * @return 应答
+     */
+    public String executeSync(String request, Supplier<String> call) {
+        String key = key(request);
+        if (key == null) {
+            return call.get();
+        }
+        CompletableFuture<Reply> created = new CompletableFuture<>();
+        CompletableFuture<Reply> shared = cache.get(key, (k, executor) -> created);
+        if (shared != created) {
+            return text(join(duplicate(key, shared)));
+        }
+        metrics.idempotency(name, MISS);
+        String reply = null;
+        Throwable error = null;
+        try {
+            reply = call.get();
+            return reply;
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            complete(key, created, reply, error);
+        }
+    }
+
+    /**
+     * 缓存名称
+     *
+     * @return 返回值
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 缓存条数（含在途请求）
+     *
+     * @return 返回值
+     */
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    /**
+     * 报文标识，未启用或报文无标识时返回 null
+     *
+     * @param request 请求报文
+     * @return 返回值
+     */
+    private String key(String request) {
+        if (!enabled) {
+            return null;
+        }
+        String key = keyExtractor.extract(request).get(keyElement);
+        return key == null || key.isEmpty() ? null : key;
+    }
+
+    private CompletableFuture<Reply> duplicate(String key, CompletableFuture<Reply> shared) {
+        boolean hit = shared.isDone() && !shared.isCompletedExceptionally();
+        metrics.idempotency(name, hit ? HIT : COALESCED);
+        log.info("重复报文：{}，{}", key, hit ? "返回缓存应答" : "合并到在途请求");
+        return shared;
+    }
+
+    /**
+     * 原请求完成：成功应答留在缓存中，失败时通知合并的请求后移除
+     */
+    private void complete(String key, CompletableFuture<Reply> created, String reply, Throwable ex) {
+        if (ex != null) {
+            // 异常完成的结果由缓存自动移除
+            created.completeExceptionally(ex);
+            return;
+        }
+        created.complete(reply == null ? null : Reply.of(reply, offHeapThreshold));
+        if (reply == null || EnumRespCode.FAIL.getCode().equals(reply)) {
+            cache.asMap().remove(key, created);
+        }
+    }
+
+    private static Reply join(CompletableFuture<Reply> shared) {
+        try {
+            return shared.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private static String text(Reply reply) {
+        return reply == null ? null : reply.text();
+    }
+
+    /**
+     * 缓存的应答：短应答保存在堆内，长应答编码后保存在堆外，由 GC 回收
+     */
+    private static final class Reply {
+
+        private final String text;
+
+        private final ByteBuffer offHeap;
+
+        private Reply(String text, ByteBuffer offHeap) {
+            this.text = text;
+            this.offHeap = offHeap;
+        }
+
+        static Reply of(String text, int offHeapThreshold) {
+            if (offHeapThreshold <= 0 || text.length() < offHeapThreshold) {
+                return new Reply(text, null);
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+            return new Reply(null, buffer.asReadOnlyBuffer());
+        }
+
+        String text() {
+            return text != null ? text : StandardCharsets.UTF_8.decode(offHeap.duplicate()).toString();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.atom.netpaygateway.client;
+
+import io.netty.buffer.ByteBuf;
+import org.asynchttpclient.request.body.Body;
+import org.asynchttpclient.request.body.generator.BodyGenerator;
+
+/**
+ * Http 请求体：持有报文缓冲区的引用，直到调用方完成且所有已开始的写出结束后才释放
+ * <p>
+ * 应答超时或中止时应答 future 先完成，AHC 可能仍在写出（或重试写出）请求体；
+ * 若此时释放，池化内存会被其他请求复用而被当作本请求的字节发出。
+ * 调用方在应答完成后调用 {@link #release()}，每次写出在开始时登记、在 {@link Body#close()} 时注销，最后一方释放缓冲区。
+ * 已释放后开始的写出直接失败，不会读取已归还的内存
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class ByteBufBodyGenerator implements BodyGenerator {
+
+    /**
+     * 报文
+     */
+    private final ByteBuf content;
+
+    /**
+     * 报文长度
+     */
+    private final int length;
+
+    /**
+     * 持有方数量：调用方 + 正在写出的请求体
+     */
+    private int holders = 1;
+
+    /**
+     * 带参构造函数
+     *
+     * @param content 报文，所有权转交本对象
+     */
+    public ByteBufBodyGenerator(ByteBuf content) {
+        this.content = content;
+        this.length = content.readableBytes();
+    }
+
+    @Override
+    public Body createBody() {
+        return new ByteBufBody();
+    }
+
+    /**
+     * 调用方完成（应答完成、失败或超时），写出仍在进行时由最后一个写出释放
+     */
+    public void release() {
+        unhold();
+    }
+
+    private synchronized void hold() {
+        if (holders == 0) {
+            throw new IllegalStateException("request body already released");
+        }
+        holders++;
+    }
+
+    private synchronized void unhold() {
+        if (holders > 0 && --holders == 0) {
+            content.release();
+        }
+    }
+
+    /**
+     * 单次写出的请求体（重试时 AHC 重新创建）
+     */
+    private final class ByteBufBody implements Body {
+
+        /**
+         * 已写出字节数
+         */
+        private int offset;
+
+        /**
+         * 是否已开始写出（已登记持有）
+         */
+        private boolean holding;
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public BodyState transferTo(ByteBuf target) {
+            if (!holding) {
+                hold();
+                holding = true;
+            }
+            int n = Math.min(target.writableBytes(), length - offset);
+            target.writeBytes(content, content.readerIndex() + offset, n);
+            offset += n;
+            return offset < length ? BodyState.CONTINUE : BodyState.STOP;
+        }
+
+        @Override
+        public void close() {
+            if (holding) {
+                holding = false;
+                unhold();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.atom.netpaygateway.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.asynchttpclient.AsyncHandler;
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
+
+/**
+ * Http 应答体收集：在回调内将每个分片直接写入池化缓冲区（仅一次拷贝，不经过 byte[]/String）
+ * <p>
+ * 需配合 LAZY 分片工厂使用，分片缓冲区在回调返回后即被释放。
+ * 指定上限时，Content-Length 或已收字节超过上限即中止接收，避免异常后端按其声明的长度占用直接内存；
+ * 不限长度时按声明长度预分配至多 {@link #MAX_PREALLOCATE} 字节，其余随实际到达的字节扩容
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class ByteBufResponseHandler implements AsyncHandler<ByteBuf> {
+
+    /**
+     * 未知长度时的初始容量
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * 按 Content-Length 预分配的最大容量
+     */
+    static final int MAX_PREALLOCATE = 4 * 1024 * 1024;
+
+    /**
+     * 缓冲区分配器
+     */
+    private final ByteBufAllocator allocator;
+
+    /**
+     * 应答体长度上限
+     */
+    private final int maxBodySize;
+
+    /**
+     * 应答体
+     */
+    private ByteBuf body;
+
+    /**
+     * 应答状态码
+     */
+    private int statusCode;
+
+    /**
+     * 中止原因，为空表示正常接收
+     */
+    private String abortReason;
+
+    /**
+     * 带参构造函数，不限应答体长度（受 ByteBuf 最大容量限制）
+     *
+     * @param allocator 缓冲区分配器
+     */
+    public ByteBufResponseHandler(ByteBufAllocator allocator) {
+        this(allocator, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 带参构造函数
+     *
+     * @param allocator 缓冲区分配器
+     * @param maxBodySize 应答体长度上限
+     */
+    public ByteBufResponseHandler(ByteBufAllocator allocator, int maxBodySize) {
+        this.allocator = allocator;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public State onStatusReceived(HttpResponseStatus responseStatus) {
+        statusCode = responseStatus.getStatusCode();
+        return statusCode >= 400 ? State.ABORT : State.CONTINUE;
+    }
+
+    @Override
+    public State onHeadersReceived(HttpHeaders headers) {
+        long contentLength = contentLength(headers);
+        if (contentLength > maxBodySize) {
+            return abort("HTTP应答长度" + contentLength + "超过上限" + maxBodySize);
+        }
+        body = allocator.directBuffer(contentLength >= 0
+                ? (int) Math.min(contentLength, MAX_PREALLOCATE) : INITIAL_CAPACITY);
+        return State.CONTINUE;
+    }
+
+    @Override
+    public State onBodyPartReceived(HttpResponseBodyPart bodyPart) {
+        if (body == null) {
+            body = allocator.directBuffer(INITIAL_CAPACITY);
+        }
+        if ((long) body.readableBytes() + bodyPart.length() > maxBodySize) {
+            return abort("HTTP应答已收长度超过上限" + maxBodySize);
+        }
+        body.writeBytes(bodyPart.getBodyByteBuffer());
+        return State.CONTINUE;
+    }
+
+    @Override
+    public void onThrowable(Throwable t) {
+        release();
+    }
+
+    @Override
+    public ByteBuf onCompleted() {
+        if (abortReason != null) {
+            release();
+            throw new RuntimeException(abortReason);
+        }
+        if (statusCode >= 400) {
+            release();
+            throw new RuntimeException("HTTP请求失败，状态码：" + statusCode);
+        }
+        ByteBuf result = body != null ? body : allocator.directBuffer(0);
+        body = null;
+        return result;
+    }
+
+    private static long contentLength(HttpHeaders headers) {
+        String value = headers.get(HttpHeaderNames.CONTENT_LENGTH);
+        if (value == null) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private State abort(String reason) {
+        abortReason = reason;
+        release();
+        return State.ABORT;
+    }
+
+    private void release() {
+        if (body != null) {
+            body.release();
+            body = null;
+        }
+    }
+}
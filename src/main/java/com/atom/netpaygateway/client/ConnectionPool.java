@@ -4,9 +4,11 @@ import com.atom.netpaygateway.config.PoolConfig;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
@@ -20,6 +22,11 @@ import java.util.concurrent.ThreadPoolExecutor;
 @Configuration
 public class ConnectionPool {
 
+    /**
+     * 虚拟线程执行模式
+     */
+    private static final String MODE_VIRTUAL = "virtual";
+
     /**
      * Http 线程池
      *
@@ -29,14 +36,20 @@ public class ConnectionPool {
      * @date 10/3/2025
      */
     @Bean("httpThreadPoolExecutor")
-    public ThreadPoolTaskExecutor httpThreadPoolExecutor(PoolConfig config) {
+    public TaskExecutor httpThreadPoolExecutor(PoolConfig config) {
+        TaskExecutor virtual = virtualExecutor(config, config.getHttpPoolPreFixName(),
+                config.getHttpPoolMaxConcurrency(), config.getHttpPoolAwaitTerminationSeconds());
+        if (virtual != null) {
+            return virtual;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(config.getHttpPoolCoreSize());
         executor.setMaxPoolSize(config.getHttpPoolMaxSize());
         executor.setKeepAliveSeconds(config.getHttpPoolKeepAliveTime());
         executor.setQueueCapacity(config.getHttpPoolQueneSize());
         executor.setThreadNamePrefix(config.getHttpPoolPreFixName());
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        // 队列满时立即拒绝，由调用方返回繁忙应答
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(config.getHttpPoolAwaitTerminationSeconds());
         log.info("初始化Http线程池：核心线程：{}，最大线程：{}，空闲进程销毁时间：{}，队列深度：{}，进程名：{}，优雅关闭等待时间：{}",
@@ -55,14 +68,20 @@ public class ConnectionPool {
      * @date 11/3/2025
      */
     @Bean("socketThreadPoolExecutor")
-    public ThreadPoolTaskExecutor socketThreadPoolExecutor(PoolConfig config) {
+    public TaskExecutor socketThreadPoolExecutor(PoolConfig config) {
+        TaskExecutor virtual = virtualExecutor(config, config.getSocketPoolPreFixName(),
+                config.getSocketPoolMaxConcurrency(), config.getSocketPoolAwaitTerminationSeconds());
+        if (virtual != null) {
+            return virtual;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(config.getSocketPoolCoreSize());
         executor.setMaxPoolSize(config.getSocketPoolMaxSize());
         executor.setKeepAliveSeconds(config.getSocketPoolKeepAliveTime());
         executor.setQueueCapacity(config.getSocketPoolQueneSize());
         executor.setThreadNamePrefix(config.getSocketPoolPreFixName());
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        // 队列满时立即拒绝，由调用方返回繁忙应答
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(config.getSocketPoolAwaitTerminationSeconds());
         log.info("初始化Socket线程池：核心线程：{}，最大线程：{}，空闲进程销毁时间：{}，队列深度：{}，进程名：{}，优雅关闭等待时间：{}",
@@ -72,4 +91,28 @@ public class ConnectionPool {
         return executor;
     }
 
+    /**
+     * 虚拟线程执行器
+     *
+     * @param config 线程池配置
+     * @param prefix 线程名前缀
+     * @param maxConcurrency 最大并发数
+     * @param awaitTerminationSeconds 优雅关闭等待时间
+     * @return 未启用虚拟线程模式或当前 JDK 不支持时返回 null
+     */
+    private TaskExecutor virtualExecutor(PoolConfig config, String prefix, int maxConcurrency,
+                                         int awaitTerminationSeconds) {
+        if (!MODE_VIRTUAL.equalsIgnoreCase(config.getMode())) {
+            return null;
+        }
+        ThreadFactory threadFactory = VirtualThreadTaskExecutor.virtualThreadFactory(prefix);
+        if (threadFactory == null) {
+            log.warn("当前JDK：{} 不支持虚拟线程，回退平台线程池：{}", Runtime.version(), prefix);
+            return null;
+        }
+        log.info("初始化虚拟线程执行器：最大并发：{}，最大等待：{}，进程名：{}，优雅关闭等待时间：{}",
+                maxConcurrency, config.getVirtualMaxWaiting(), prefix, awaitTerminationSeconds);
+        return new VirtualThreadTaskExecutor(threadFactory, maxConcurrency, config.getVirtualMaxWaiting(),
+                awaitTerminationSeconds);
+    }
 }
@@ -1,14 +1,32 @@
 package com.atom.netpaygateway.client;
 
+import com.atom.netpaygateway.exception.CircuitOpenException;
+import com.atom.netpaygateway.limiter.CircuitBreaker;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.route.Backend;
+import com.atom.netpaygateway.route.Router;
+import io.micrometer.core.instrument.Timer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.CharsetUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.Request;
 import org.asynchttpclient.RequestBuilder;
-import org.asynchttpclient.Response;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Http 连接管理-Netty
@@ -18,52 +36,249 @@ import java.util.concurrent.CompletableFuture;
  */
 @Slf4j
 @Service
-public class HttpClientNetty {
+public class HttpClientNetty implements HealthIndicator {
 
     /**
-     * URL
+     * 连接超时时间 秒
      */
-    @Value("${gateway.forward.http.url}")
-    private String url;
+    @Value("${gateway.forward.http.connectTimeout}")
+    private volatile Integer connectTimeout;
 
     /**
-     * 连接超时时间 秒
+     * 字节模式应答体长度上限，与报文最大长度一致
      */
-    @Value("${gateway.forward.http.connectTimeout}")
-    private Integer connectTimeout;
+    @Value("${gateway.listen.socket.maxFrameSize:4194304}")
+    private int maxFrameSize;
+
+    /**
+     * 异步Http客户端，调整配置时整体替换
+     */
+    private volatile AsyncHttpClient httpClient;
+
+    /**
+     * 后端路由
+     */
+    private final Router<String> router;
 
     /**
-     * 异步Http客户端
+     * 后端熔断器
      */
-    private final AsyncHttpClient httpClient;
+    private final CircuitBreaker breaker;
+
+    /**
+     * 网关指标
+     */
+    private final GatewayMetrics metrics;
 
     /**
      * 带参构造函数
      *
      * @param httpClient 参数说明
+     * @param router 后端路由
+     * @param breaker 后端熔断器
+     * @param metrics 网关指标
      */
-    public HttpClientNetty(AsyncHttpClient httpClient) {
+    public HttpClientNetty(AsyncHttpClient httpClient, @Qualifier("httpRouter") Router<String> router,
+                           @Qualifier("httpCircuitBreaker") CircuitBreaker breaker, GatewayMetrics metrics) {
         this.httpClient = httpClient;
+        this.router = router;
+        this.breaker = breaker;
+        this.metrics = metrics;
     }
 
     /**
-     * 实际发送Http
+     * 实际发送Http，应答体不限长度
      *
      * @param message 报文体
      * @return 返回值
      */
     public CompletableFuture<String> sendMessage(String message) {
-        Request request = new RequestBuilder()
+        return execute(url -> newRequest(url).setBody(message).build(),
+                () -> new ByteBufResponseHandler(PooledByteBufAllocator.DEFAULT)).thenApply(this::handleResponse);
+    }
+
+    /**
+     * 实际发送Http-字节模式：请求体从报文缓冲区写出，应答以池化缓冲区返回，全程不构造 String
+     * <p>
+     * 请求完成且请求体写出结束后释放 message；返回的 ByteBuf 由调用方负责写出或释放。
+     * 应答将直接作为 Socket 报文写回，长度超过 maxFrameSize 时中止接收并按失败处理
+     *
+     * @param message 报文体
+     * @return 返回值
+     */
+    public CompletableFuture<ByteBuf> sendMessage(ByteBuf message) {
+        ByteBufBodyGenerator body = new ByteBufBodyGenerator(message);
+        return execute(url -> newRequest(url).setBody(body).build(),
+                () -> new ByteBufResponseHandler(PooledByteBufAllocator.DEFAULT, maxFrameSize))
+                .whenComplete((response, ex) -> body.release());
+    }
+
+    /**
+     * 实际发送Http-流式转发：应答分片到达即写入下游通道，返回已转发字节数
+     * <p>
+     * 请求完成且请求体写出结束后释放 message；异常时可通过 handler 的已转发字节数判断下游是否已收到部分应答
+     *
+     * @param message 报文体
+     * @param handler 流式转发处理器
+     * @return 返回值
+     */
+    public CompletableFuture<Long> relayMessage(ByteBuf message, StreamingResponseHandler handler) {
+        ByteBufBodyGenerator body = new ByteBufBodyGenerator(message);
+        return guarded(permit -> routed(permit, url -> timed(httpClient.executeRequest(
+                newRequest(url).setBody(body).build(), handler).toCompletableFuture())))
+                .whenComplete((relayed, ex) -> body.release());
+    }
+
+    /**
+     * 实际发送Http-流式转发
+     *
+     * @param message 报文体
+     * @param handler 流式转发处理器
+     * @return 返回值
+     */
+    public CompletableFuture<Long> relayMessage(String message, StreamingResponseHandler handler) {
+        return guarded(permit -> routed(permit, url -> timed(httpClient.executeRequest(
+                newRequest(url).setBody(message).build(), handler).toCompletableFuture())));
+    }
+
+    /**
+     * 替换异步Http客户端：新请求使用新客户端，旧客户端在应答超时后关闭，在途请求照常完成
+     *
+     * @param client 新客户端（与旧客户端共用 io 线程）
+     * @param connectTimeout 连接超时时间 秒，null 表示不变
+     */
+    public synchronized void reconfigure(AsyncHttpClient client, Integer connectTimeout) {
+        // 旧客户端上的请求按旧超时构造，替换瞬间也可能按新超时构造，取两者较大值等待在途请求结束
+        long drainSeconds = this.connectTimeout + 1L;
+        if (connectTimeout != null) {
+            drainSeconds = Math.max(drainSeconds, connectTimeout + 1L);
+            this.connectTimeout = connectTimeout;
+        }
+        AsyncHttpClient previous = httpClient;
+        httpClient = client;
+        CompletableFuture.delayedExecutor(drainSeconds, TimeUnit.SECONDS).execute(() -> close(previous));
+        log.info("Http异步客户端已替换，旧客户端 {} 秒后关闭", drainSeconds);
+    }
+
+    /**
+     * 连接超时时间 秒
+     *
+     * @return 返回值
+     */
+    public Integer getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * 关闭当前客户端（原客户端由 Spring 关闭，重复关闭无影响）
+     */
+    @PreDestroy
+    public void shutdown() {
+        close(httpClient);
+    }
+
+    private void close(AsyncHttpClient client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            log.warn("关闭Http异步客户端异常", e);
+        }
+    }
+
+    /**
+     * 构造请求
+     *
+     * @param url 后端 URL
+     * @return 返回值
+     */
+    private RequestBuilder newRequest(String url) {
+        return new RequestBuilder()
                 .setMethod("POST")
                 .setUrl(url)
                 .setRequestTimeout(connectTimeout * 1000)
-                .setHeader("Content-Type", "application/xml")
-                .setBody(message)
-                .build();
+                .setHeader("Content-Type", "application/xml");
+    }
 
-        return httpClient.executeRequest(request)
-                .toCompletableFuture()
-                .thenApply(this::handleResponse);
+    /**
+     * 发送请求，应答体收集到池化缓冲区
+     *
+     * @param request 按后端 URL 构造请求
+     * @param handler 应答体收集器，每次发送新建
+     * @return 返回值
+     */
+    private CompletableFuture<ByteBuf> execute(Function<String, Request> request,
+                                               Supplier<ByteBufResponseHandler> handler) {
+        return guarded(permit -> routed(permit, url -> timed(httpClient.executeRequest(request.apply(url),
+                handler.get()).toCompletableFuture())));
+    }
+
+    /**
+     * 按负载代价选择后端节点，并以本笔结果更新节点的耗时与错误率和熔断器；
+     * 节点已被路由摘除且仍有其他节点可用时，失败不计入熔断器
+     *
+     * @param permit 熔断许可
+     * @param send 向选定节点发送
+     * @param <T> 应答类型
+     * @return 返回值
+     */
+    private <T> CompletableFuture<T> routed(CircuitBreaker.Permit permit, Function<String, CompletableFuture<T>> send) {
+        Backend<String> backend = router.select();
+        Backend<String>.Call call = backend.begin();
+        return send.apply(backend.getTarget()).whenComplete((r, ex) -> {
+            if (ex == null) {
+                call.success();
+                permit.success();
+            } else {
+                call.failure();
+                if (router.isolated(backend)) {
+                    permit.ignore();
+                } else {
+                    permit.failure();
+                }
+            }
+        });
+    }
+
+    /**
+     * 熔断保护：熔断打开时不发出请求，立即失败
+     *
+     * @param call 持熔断许可发送请求，请求结束时结束许可
+     * @param <T> 应答类型
+     * @return 返回值
+     */
+    private <T> CompletableFuture<T> guarded(Function<CircuitBreaker.Permit, CompletableFuture<T>> call) {
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        if (permit == null) {
+            metrics.circuitRejected(breaker.getName());
+            return CompletableFuture.failedFuture(new CircuitOpenException(breaker.getName()));
+        }
+        return call.apply(permit);
+    }
+
+    /**
+     * Spring 健康检查：熔断状态与各节点在途请求数
+     *
+     * @return 返回值
+     */
+    @Override
+    public Health health() {
+        Map<String, String> details = new LinkedHashMap<>();
+        details.put("circuit", breaker.getState().name());
+        details.put("failureRate", String.format("%.2f", breaker.getFailureRate()));
+        router.getBackends().forEach(b -> details.put(b.getTarget(), "outstanding=" + b.getOutstanding()));
+        return Health.up().withDetails(details).build();
+    }
+
+    /**
+     * 记录后端应答耗时，超时单独归类
+     *
+     * @param response 应答
+     * @param <T> 应答类型
+     * @return 返回值
+     */
+    private <T> CompletableFuture<T> timed(CompletableFuture<T> response) {
+        Timer.Sample sample = metrics.start();
+        return response.whenComplete((r, ex) -> metrics.backend(sample, GatewayMetrics.BACKEND_HTTP, ex));
     }
 
     /**
@@ -72,10 +287,11 @@ public class HttpClientNetty {
      * @param response 响应报文
      * @return 返回值
      */
-    private String handleResponse(Response response) {
-        if (response.getStatusCode() >= 400) {
-            throw new RuntimeException("HTTP请求失败，状态码：" + response.getStatusCode());
+    private String handleResponse(ByteBuf response) {
+        try {
+            return response.toString(CharsetUtil.UTF_8);
+        } finally {
+            response.release();
         }
-        return response.getResponseBody();
     }
 }
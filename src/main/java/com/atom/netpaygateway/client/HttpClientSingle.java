@@ -1,21 +1,30 @@
 package com.atom.netpaygateway.client;
 
 import com.atom.netpaygateway.enums.EnumRespCode;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.route.Backend;
+import com.atom.netpaygateway.route.Router;
+import feign.Client;
 import feign.Feign;
 import feign.Request;
 import feign.Retryer;
 import feign.codec.Decoder;
 import feign.codec.Encoder;
+import feign.httpclient.ApacheHttpClient;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,23 +37,17 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class HttpClientSingle {
 
-    /**
-     * URL
-     */
-    @Value("${gateway.forward.http.url}")
-    private String url;
-
     /**
      * 连接超时时间 秒
      */
     @Value("${gateway.forward.http.connectTimeout}")
-    private Integer connectTimeout;
+    private volatile Integer connectTimeout;
 
     /**
      * 读取超时时间 秒
      */
     @Value("${gateway.forward.http.readTimeout}")
-    private Integer readTimeout;
+    private volatile Integer readTimeout;
 
     /**
      * 是否需重发，默认 否
@@ -52,6 +55,40 @@ public class HttpClientSingle {
     @Value("${gateway.forward.http.canResend}")
     private boolean canResend;
 
+    /**
+     * Feign 传输层，池化长连接
+     */
+    private final Client client;
+
+    /**
+     * 按 URL 缓存的 Feign 代理，避免每笔请求重建代理/编解码器
+     */
+    private final ConcurrentMap<String, HttpFeignExtClinet> targets = new ConcurrentHashMap<>();
+
+    /**
+     * 后端路由
+     */
+    private final Router<String> router;
+
+    /**
+     * 网关指标
+     */
+    private final GatewayMetrics metrics;
+
+    /**
+     * 带参构造函数
+     *
+     * @param feignHttpClient 池化 Http 客户端
+     * @param router 后端路由
+     * @param metrics 网关指标
+     */
+    public HttpClientSingle(CloseableHttpClient feignHttpClient, @Qualifier("httpRouter") Router<String> router,
+                            GatewayMetrics metrics) {
+        this.client = new ApacheHttpClient(feignHttpClient);
+        this.router = router;
+        this.metrics = metrics;
+    }
+
     /**
      * 单笔发送 Http 请求-使用原始Http
      *
@@ -59,19 +96,20 @@ public class HttpClientSingle {
      * @return 返回值
      */
     public String sendMessage(String message) {
-        log.info("发送Http：{}，连接超时：{}秒，接收超时：{}秒", url, connectTimeout, readTimeout);
-
-        HttpFeignExtClinet feignExtClinet = Feign.builder()
-                .encoder(new Encoder.Default())
-                .decoder(new Decoder.Default())
-                .options(new Request.Options(connectTimeout, TimeUnit.SECONDS, readTimeout, TimeUnit.SECONDS, true))
-                .retryer(canResend ? new Retryer.Default() : Retryer.NEVER_RETRY)
-                .target(HttpFeignExtClinet.class, url);
+        Backend<String> backend = router.select();
+        log.info("发送Http：{}，连接超时：{}秒，接收超时：{}秒", backend.getTarget(), connectTimeout, readTimeout);
 
+        Timer.Sample sample = metrics.start();
+        Backend<String>.Call call = backend.begin();
         try {
-            return feignExtClinet.sendMessage(message);
+            String response = targets.computeIfAbsent(backend.getTarget(), this::newTarget).sendMessage(message);
+            metrics.backend(sample, GatewayMetrics.BACKEND_HTTP, EnumRespCode.SUCCESS);
+            call.success();
+            return response;
         } catch (Exception e) {
             log.warn("Http 调用异常", e);
+            metrics.backend(sample, GatewayMetrics.BACKEND_HTTP, e);
+            call.failure();
             return EnumRespCode.FAIL.getCode();
         }
     }
@@ -83,10 +121,12 @@ public class HttpClientSingle {
      * @return 返回值
      */
     public String sendMessageOri(String message) {
-        log.info("发送Http：{}，连接超时：{}秒，接收超时：{}秒", url, connectTimeout, readTimeout);
+        Backend<String> backend = router.select();
+        log.info("发送Http：{}，连接超时：{}秒，接收超时：{}秒", backend.getTarget(), connectTimeout, readTimeout);
 
+        Backend<String>.Call call = backend.begin();
         try {
-            URL obj = new URL(url);
+            URL obj = new URL(backend.getTarget());
             HttpURLConnection con = (HttpURLConnection) obj.openConnection();
             con.setRequestMethod("POST");
             con.setRequestProperty("Content-Type", "application/xml;charset=UTF-8");
@@ -102,16 +142,15 @@ public class HttpClientSingle {
             int responseCode = con.getResponseCode();
             log.info("Http 响应码 : {}", responseCode);
 
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine).append("\n");
-                }
-                return response.toString();
+            // 读完应答体并关闭流（不 disconnect），连接可被 JDK 的 keep-alive 缓存复用
+            try (InputStream in = con.getInputStream()) {
+                String response = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                call.success();
+                return response;
             }
         } catch (Exception e) {
             log.warn("Http 调用异常", e);
+            call.failure();
             if (canResend) {
                 log.info("尝试重新发送请求");
                 return sendMessage(message); // 递归重试
@@ -119,5 +158,38 @@ public class HttpClientSingle {
             return EnumRespCode.FAIL.getCode();
         }
     }
-}
 
+    /**
+     * 调整超时时间：清空已缓存的 Feign 代理，新请求按新超时重建，在途请求沿用原代理
+     *
+     * @param connectTimeout 连接超时时间 秒，null 表示不变
+     * @param readTimeout 读取超时时间 秒，null 表示不变
+     */
+    public synchronized void reconfigure(Integer connectTimeout, Integer readTimeout) {
+        if (connectTimeout != null) {
+            this.connectTimeout = connectTimeout;
+        }
+        if (readTimeout != null) {
+            this.readTimeout = readTimeout;
+        }
+        targets.clear();
+        log.info("Http单笔客户端超时变更：连接超时：{}秒，读取超时：{}秒", this.connectTimeout, this.readTimeout);
+    }
+
+    /**
+     * 构建 Feign 代理
+     *
+     * @param target URL
+     * @return 返回值
+     */
+    private HttpFeignExtClinet newTarget(String target) {
+        log.info("创建Http Feign代理：{}", target);
+        return Feign.builder()
+                .client(client)
+                .encoder(new Encoder.Default())
+                .decoder(new Decoder.Default())
+                .options(new Request.Options(connectTimeout, TimeUnit.SECONDS, readTimeout, TimeUnit.SECONDS, true))
+                .retryer(canResend ? new Retryer.Default() : Retryer.NEVER_RETRY)
+                .target(HttpFeignExtClinet.class, target);
+    }
+}
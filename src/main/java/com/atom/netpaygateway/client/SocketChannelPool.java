@@ -0,0 +1,653 @@
+package com.atom.netpaygateway.client;
+
+import com.atom.netpaygateway.codec.FramingStrategy;
+import com.atom.netpaygateway.codec.RequestEncoder;
+import com.atom.netpaygateway.codec.ResponseDecoder;
+import com.atom.netpaygateway.codec.WriteCoalescingHandler;
+import com.atom.netpaygateway.codec.XmlFieldExtractor;
+import com.atom.netpaygateway.config.EventLoopTopology;
+import com.atom.netpaygateway.metrics.ConnectTimingHandler;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.model.XmlMessage;
+import com.atom.netpaygateway.utils.LogUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.MonoSink;
+
+import javax.annotation.PostConstruct;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Socket 长连接池（按后端地址分池），支持独占和多路复用两种使用方式
+ * <p>
+ * 开启 EventLoop 亲和（affinity）时每个 io 线程各有一组连接池，调用线程是 io 线程时使用本线程的连接，
+ * 连接读写与回调都在调用方所在的 EventLoop 上执行；单节点最大连接数、排队数按 io 线程数均分。
+ * 连接数、排队数、超时可在运行时调整：新建一组连接池整体替换，旧连接池上的请求完成后再关闭
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+@Component
+public class SocketChannelPool {
+
+    /**
+     * 当前连接上等待应答的请求
+     */
+    static final AttributeKey<MonoSink<String>> PENDING = AttributeKey.valueOf("netpay.socket.pending");
+
+    /**
+     * 多路复用模式下连接上在途的请求：关联标识 -> 等待应答的请求
+     */
+    static final AttributeKey<Map<String, MonoSink<String>>> IN_FLIGHT = AttributeKey.valueOf("netpay.socket.inFlight");
+
+    /**
+     * 连接所属的连接池
+     */
+    private static final AttributeKey<FixedChannelPool> OWNER = AttributeKey.valueOf("netpay.socket.pool");
+
+    /**
+     * 被替换的连接池最长等待时间 秒，超过后关闭仍在使用的连接
+     */
+    private static final int RETIRE_GRACE_SECONDS = 30;
+
+    /**
+     * 是否多路复用：多笔请求共享连接，按关联标识匹配应答，默认 否
+     */
+    @Value("${gateway.forward.socket.multiplexed:false}")
+    private boolean multiplexed;
+
+    /**
+     * 关联标识所在的报文元素
+     */
+    @Value("${gateway.forward.socket.correlationElement:MsgId}")
+    private String correlationElement;
+
+    /**
+     * 连接超时时间 毫秒
+     */
+    @Value("${gateway.forward.socket.connectTimeout:3000}")
+    private volatile int connectTimeout;
+
+    /**
+     * 单节点最大连接数
+     */
+    @Value("${gateway.forward.socket.pool.maxConnections:64}")
+    private volatile int maxConnections;
+
+    /**
+     * 获取连接最大排队数
+     */
+    @Value("${gateway.forward.socket.pool.maxPendingAcquires:1024}")
+    private volatile int maxPendingAcquires;
+
+    /**
+     * 获取连接超时时间 毫秒
+     */
+    @Value("${gateway.forward.socket.pool.acquireTimeout:2000}")
+    private volatile long acquireTimeout;
+
+    /**
+     * 空闲连接回收时间 秒
+     */
+    @Value("${gateway.forward.socket.pool.idleTimeout:60}")
+    private int idleTimeout;
+
+    /**
+     * 是否按 EventLoop 分池，调用方为 io 线程时连接绑定到同一 EventLoop，默认 否
+     */
+    @Value("${gateway.forward.socket.pool.affinity:false}")
+    private boolean affinity;
+
+    /**
+     * 是否开启写合并（推迟 flush，多笔报文合并为一次写出），默认 否
+     */
+    @Value("${gateway.forward.socket.coalesce.enabled:false}")
+    private boolean coalesce;
+
+    /**
+     * 写合并窗口 微秒，0 表示 EventLoop 本轮任务执行完后刷出
+     */
+    @Value("${gateway.forward.socket.coalesce.windowMicros:50}")
+    private long coalesceWindowMicros;
+
+    /**
+     * 写合并待刷出字节上限，达到后立即刷出
+     */
+    @Value("${gateway.forward.socket.coalesce.maxBytes:16384}")
+    private int coalesceMaxBytes;
+
+    /**
+     * 是否开启 TCP_QUICKACK（仅 epoll），默认 否
+     */
+    @Value("${gateway.netty.tcpQuickAck:false}")
+    private boolean tcpQuickAck;
+
+    /**
+     * Netty 线程拓扑
+     */
+    private final EventLoopTopology topology;
+
+    /**
+     * 网关指标
+     */
+    private final GatewayMetrics metrics;
+
+    /**
+     * 所有后端连接，关闭后自动移除
+     */
+    private final ChannelGroup channels = new DefaultChannelGroup("socket-backend", GlobalEventExecutor.INSTANCE);
+
+    /**
+     * 应答报文长度分布
+     */
+    private final DistributionSummary frameSize;
+
+    /**
+     * 写合并每次刷出的报文数
+     */
+    private final DistributionSummary writeBatch;
+
+    /**
+     * 写合并增加的时延
+     */
+    private final Timer writeDelay;
+
+    /**
+     * 分帧策略
+     */
+    private final FramingStrategy framing;
+
+    /**
+     * 请求编码（所有连接共享）
+     */
+    private final RequestEncoder requestEncoder = new RequestEncoder(PooledByteBufAllocator.DEFAULT);
+
+    /**
+     * 应答解码（所有连接共享）
+     */
+    private final ResponseDecoder responseDecoder = new ResponseDecoder();
+
+    /**
+     * 应答关联标识提取（多路复用），直接扫描应答字节
+     */
+    private XmlFieldExtractor correlation;
+
+    /**
+     * 应答处理（所有连接共享）
+     */
+    private final ResponseHandler responseHandler = new ResponseHandler();
+
+    /**
+     * 关闭标记位
+     */
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * 当前连接池，调整配置时整体替换
+     */
+    private volatile Pools pools;
+
+    /**
+     * 已被替换、等待请求完成后关闭的连接池
+     */
+    private final Set<Pools> retiring = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 带参构造函数
+     *
+     * @param topology Netty 线程拓扑
+     * @param metrics 网关指标
+     * @param framing 分帧策略
+     */
+    public SocketChannelPool(EventLoopTopology topology, GatewayMetrics metrics,
+                             @Qualifier("socketFraming") FramingStrategy framing) {
+        this.topology = topology;
+        this.metrics = metrics;
+        this.framing = framing;
+        this.frameSize = metrics.frameSize(channels.name());
+        this.writeBatch = metrics.writeBatch(channels.name());
+        this.writeDelay = metrics.writeDelay(channels.name());
+        metrics.channels(channels.name(), channels);
+    }
+
+    /**
+     * 初始化连接池
+     */
+    @PostConstruct
+    public void init() {
+        correlation = new XmlFieldExtractor(Collections.singletonList(correlationElement));
+        pools = newPools();
+    }
+
+    /**
+     * 调整连接池配置：新请求使用新连接池，旧连接池上的请求照常完成
+     *
+     * @param connectTimeout 连接超时时间 毫秒，null 表示不变
+     * @param maxConnections 单节点最大连接数，null 表示不变
+     * @param maxPendingAcquires 获取连接最大排队数，null 表示不变
+     * @param acquireTimeout 获取连接超时时间 毫秒，null 表示不变
+     */
+    public synchronized void reconfigure(Integer connectTimeout, Integer maxConnections, Integer maxPendingAcquires,
+                                         Long acquireTimeout) {
+        if (closed.get()) {
+            throw new IllegalStateException("Socket channel pool is closed");
+        }
+        if (connectTimeout != null) {
+            this.connectTimeout = connectTimeout;
+        }
+        if (maxConnections != null) {
+            this.maxConnections = maxConnections;
+        }
+        if (maxPendingAcquires != null) {
+            this.maxPendingAcquires = maxPendingAcquires;
+        }
+        if (acquireTimeout != null) {
+            this.acquireTimeout = acquireTimeout;
+        }
+        Pools previous = pools;
+        pools = newPools();
+        log.info("Socket连接池配置变更：连接超时：{}ms，最大连接数：{}，最大排队数：{}，获取超时：{}ms",
+                this.connectTimeout, this.maxConnections, this.maxPendingAcquires, this.acquireTimeout);
+        retire(previous, System.nanoTime() + TimeUnit.SECONDS.toNanos(RETIRE_GRACE_SECONDS));
+    }
+
+    /**
+     * 按当前配置创建一组连接池
+     *
+     * @return 返回值
+     */
+    private Pools newPools() {
+        Bootstrap bootstrap = topology.transport().configure(new Bootstrap(), tcpQuickAck)
+                .group(topology.ioGroup())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true);
+
+        if (!affinity) {
+            return new Pools(newPoolMap(bootstrap, maxConnections, maxPendingAcquires), null);
+        }
+        int loops = topology.ioThreads();
+        int loopConnections = Math.max(1, (maxConnections + loops - 1) / loops);
+        int loopPendingAcquires = Math.max(1, (maxPendingAcquires + loops - 1) / loops);
+        Map<EventExecutor, AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool>> loopPoolMaps =
+                new IdentityHashMap<>();
+        for (EventExecutor loop : topology.ioGroup()) {
+            loopPoolMaps.put(loop, newPoolMap(bootstrap.clone((EventLoop) loop), loopConnections, loopPendingAcquires));
+        }
+        return new Pools(null, loopPoolMaps);
+    }
+
+    /**
+     * 被替换的连接池：借出的连接全部归还、且连接上没有等待应答的请求后关闭，最长等待到 deadline
+     *
+     * @param previous 被替换的连接池
+     * @param deadline 最长等待时间 纳秒
+     */
+    private void retire(Pools previous, long deadline) {
+        retiring.add(previous);
+        GlobalEventExecutor.INSTANCE.schedule(() -> {
+            if (!retiring.contains(previous)) {
+                return;
+            }
+            if (isBusy(previous) && System.nanoTime() < deadline) {
+                retire(previous, deadline);
+                return;
+            }
+            retiring.remove(previous);
+            previous.close();
+            log.info("旧Socket连接池已关闭");
+        }, 1, TimeUnit.SECONDS);
+    }
+
+    private boolean isBusy(Pools previous) {
+        if (previous.acquiredCount() > 0) {
+            return true;
+        }
+        for (Channel channel : channels) {
+            FixedChannelPool owner = channel.attr(OWNER).get();
+            if (owner != null && previous.owns(owner) && (channel.attr(PENDING).get() != null
+                    || !channel.attr(IN_FLIGHT).get().isEmpty())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按后端地址创建连接池
+     *
+     * @param bootstrap 客户端启动器
+     * @param connections 单节点最大连接数
+     * @param pendingAcquires 获取连接最大排队数
+     * @return 返回值
+     */
+    private AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool> newPoolMap(Bootstrap bootstrap,
+                                                                                   int connections,
+                                                                                   int pendingAcquires) {
+        // 同一组连接池内各节点使用创建时的配置
+        long timeout = acquireTimeout;
+        return new AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool>() {
+            @Override
+            protected FixedChannelPool newPool(InetSocketAddress key) {
+                log.info("创建Socket连接池：{}，最大连接数：{}，获取超时：{}ms，空闲回收：{}秒",
+                        key, connections, timeout, idleTimeout);
+                return new FixedChannelPool(bootstrap.clone().remoteAddress(key), new PoolHandler(),
+                        ChannelHealthChecker.ACTIVE, FixedChannelPool.AcquireTimeoutAction.FAIL,
+                        timeout, connections, pendingAcquires, true, true);
+            }
+        };
+    }
+
+    /**
+     * 异步获取连接，连接建立不阻塞调用线程
+     *
+     * @param address 后端地址
+     * @return 返回值
+     */
+    public Future<Channel> acquire(InetSocketAddress address) {
+        FixedChannelPool pool = pools.get(topology, address);
+        return pool.acquire().addListener(f -> {
+            if (f.isSuccess()) {
+                ((Channel) f.getNow()).attr(OWNER).set(pool);
+            }
+        });
+    }
+
+    /**
+     * 归还连接，由健康检查决定是否继续复用
+     *
+     * @param channel 连接
+     */
+    public void release(Channel channel) {
+        FixedChannelPool pool = channel.attr(OWNER).get();
+        if (pool != null) {
+            pool.release(channel);
+        }
+    }
+
+    /**
+     * 放弃仍在等待应答的请求（如超时），关闭连接避免迟到的应答串到下一笔
+     *
+     * @param channel 连接
+     * @param sink 等待应答的请求
+     */
+    public void abandon(Channel channel, MonoSink<String> sink) {
+        if (channel.attr(PENDING).compareAndSet(sink, null)) {
+            channel.close();
+            release(channel);
+        }
+    }
+
+    /**
+     * 多路复用模式下登记在途请求
+     *
+     * @param channel 连接
+     * @param key 关联标识
+     * @param sink 等待应答的请求
+     * @return 同一连接上已有相同标识的在途请求时返回 false
+     */
+    public boolean register(Channel channel, String key, MonoSink<String> sink) {
+        return channel.attr(IN_FLIGHT).get().putIfAbsent(key, sink) == null;
+    }
+
+    /**
+     * 多路复用模式下注销在途请求（超时或取消），连接继续由其他请求共享
+     *
+     * @param channel 连接
+     * @param key 关联标识
+     * @param sink 等待应答的请求
+     */
+    public void deregister(Channel channel, String key, MonoSink<String> sink) {
+        channel.attr(IN_FLIGHT).get().remove(key, sink);
+    }
+
+    /**
+     * 从报文中提取关联标识，与应答侧使用同一提取器，两侧对同一报文得到相同的标识；只编码到找到标识为止的前缀
+     *
+     * @param message 报文
+     * @return 返回值
+     */
+    public String correlationKey(String message) {
+        return correlation.extract(message).get(correlationElement);
+    }
+
+    /**
+     * 是否多路复用
+     *
+     * @return 返回值
+     */
+    public boolean isMultiplexed() {
+        return multiplexed;
+    }
+
+    /**
+     * 已借出连接数
+     *
+     * @return 返回值
+     */
+    public int acquiredCount() {
+        int count = pools.acquiredCount();
+        for (Pools previous : retiring) {
+            count += previous.acquiredCount();
+        }
+        return count;
+    }
+
+    /**
+     * 连接池当前配置
+     *
+     * @return 返回值
+     */
+    public Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("connectTimeout", connectTimeout);
+        settings.put("maxConnections", maxConnections);
+        settings.put("maxPendingAcquires", maxPendingAcquires);
+        settings.put("acquireTimeout", acquireTimeout);
+        return settings;
+    }
+
+    /**
+     * 关闭所有连接池
+     */
+    public synchronized void close() {
+        if (closed.compareAndSet(false, true)) {
+            pools.close();
+            retiring.forEach(Pools::close);
+            retiring.clear();
+        }
+    }
+
+    /**
+     * 一组连接池：共享模式只有 shared，EventLoop 亲和模式按 io 线程各一组
+     */
+    private static final class Pools {
+
+        /**
+         * 后端地址 -> 连接池
+         */
+        private final AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool> shared;
+
+        /**
+         * EventLoop 亲和模式：io 线程 -> （后端地址 -> 连接池），创建后只读
+         */
+        private final Map<EventExecutor, AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool>> perLoop;
+
+        private Pools(AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool> shared,
+                      Map<EventExecutor, AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool>> perLoop) {
+            this.shared = shared;
+            this.perLoop = perLoop;
+        }
+
+        private FixedChannelPool get(EventLoopTopology topology, InetSocketAddress address) {
+            return shared != null ? shared.get(address) : perLoop.get(topology.current()).get(address);
+        }
+
+        private List<AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool>> maps() {
+            return shared != null ? Collections.singletonList(shared) : new ArrayList<>(perLoop.values());
+        }
+
+        private boolean owns(FixedChannelPool pool) {
+            for (AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool> map : maps()) {
+                for (Map.Entry<InetSocketAddress, FixedChannelPool> entry : map) {
+                    if (entry.getValue() == pool) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private int acquiredCount() {
+            int count = 0;
+            for (AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool> map : maps()) {
+                for (Map.Entry<InetSocketAddress, FixedChannelPool> entry : map) {
+                    count += entry.getValue().acquiredChannelCount();
+                }
+            }
+            return count;
+        }
+
+        private void close() {
+            maps().forEach(AbstractChannelPoolMap::close);
+        }
+    }
+
+    /**
+     * 新建连接时初始化 pipeline
+     */
+    private class PoolHandler extends AbstractChannelPoolHandler {
+
+        @Override
+        public void channelCreated(Channel ch) {
+            ch.attr(IN_FLIGHT).set(new ConcurrentHashMap<>());
+            channels.add(ch);
+            ch.pipeline().addLast(
+                    new ConnectTimingHandler(metrics, GatewayMetrics.BACKEND_SOCKET),
+                    new IdleStateHandler(0, 0, idleTimeout, TimeUnit.SECONDS));
+            if (coalesce) {
+                // 位于 RequestEncoder 之前（靠近 head），按编码后的字节数计算上限
+                ch.pipeline().addLast(new WriteCoalescingHandler(coalesceWindowMicros, coalesceMaxBytes,
+                        writeBatch, writeDelay));
+            }
+            if (!framing.isDelimited()) {
+                ch.pipeline().addLast(framing.encoder());
+            }
+            ch.pipeline().addLast(
+                    requestEncoder,
+                    framing.newDecoder(frameSize),
+                    responseDecoder,
+                    responseHandler);
+        }
+    }
+
+    /**
+     * 应答处理：独占模式下完成当前等待的请求后归还连接，多路复用模式下按关联标识匹配
+     */
+    @ChannelHandler.Sharable
+    private class ResponseHandler extends SimpleChannelInboundHandler<XmlMessage> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, XmlMessage message) {
+            if (multiplexed) {
+                // 按字节提取关联标识，找到对应请求后才解码应答
+                String key = correlation.extract(message.content()).get(correlationElement);
+                MonoSink<String> sink = key == null ? null : ctx.channel().attr(IN_FLIGHT).get().remove(key);
+                if (sink == null) {
+                    log.warn("丢弃无对应请求的Socket应答，关联标识：{}", key);
+                    return;
+                }
+                String s = message.text();
+                LogUtils.payload("Received Response from Socket", s);
+                sink.success(s);
+                return;
+            }
+            String s = message.text();
+            MonoSink<String> sink = ctx.channel().attr(PENDING).getAndSet(null);
+            if (sink == null) {
+                log.warn("丢弃无对应请求的Socket应答：{}", LogUtils.abbreviate(s));
+                return;
+            }
+            LogUtils.payload("Received Response from Socket", s);
+            release(ctx.channel());
+            // 正常返回数据
+            sink.success(s);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            fail(ctx.channel(), new IllegalStateException("Socket connection closed without response"));
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            // 空闲回收：仅关闭池中无请求的连接，下次借出时由健康检查剔除
+            if (evt instanceof IdleStateEvent && ctx.channel().attr(PENDING).get() == null
+                    && ctx.channel().attr(IN_FLIGHT).get().isEmpty()) {
+                log.debug("回收空闲Socket连接：{}", ctx.channel());
+                ctx.close();
+                return;
+            }
+            super.userEventTriggered(ctx, evt);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            log.error("Exception caught: {}", cause.getMessage());
+            fail(ctx.channel(), cause);
+            ctx.close();
+        }
+
+        private void fail(Channel channel, Throwable cause) {
+            MonoSink<String> sink = channel.attr(PENDING).getAndSet(null);
+            if (sink != null) {
+                release(channel);
+                sink.error(cause);
+            }
+            // 连接断开时，该连接上所有在途请求一并失败
+            Map<String, MonoSink<String>> inFlight = channel.attr(IN_FLIGHT).get();
+            for (String key : inFlight.keySet()) {
+                MonoSink<String> pending = inFlight.remove(key);
+                if (pending != null) {
+                    pending.error(cause);
+                }
+            }
+        }
+    }
+}
@@ -1,19 +1,18 @@
 package com.atom.netpaygateway.client;
 
-import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.ChannelFuture;
+import com.atom.netpaygateway.config.EventLoopTopology;
+import com.atom.netpaygateway.exception.CircuitOpenException;
+import com.atom.netpaygateway.limiter.CircuitBreaker;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.route.Backend;
+import com.atom.netpaygateway.route.Router;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
-import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.ChannelInitializer;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.MultithreadEventLoopGroup;
-import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
-import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.FutureListener;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.context.ApplicationListener;
@@ -22,11 +21,14 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import javax.annotation.PreDestroy;
+import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Socket连接管理 Netty
@@ -39,19 +41,35 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class SocketClientNetty implements ApplicationListener<ContextClosedEvent>, HealthIndicator {
 
     /**
-     * Socket 服务器地址（后续数据库表获取）
+     * 应答超时时间 毫秒，运行时可调整
      */
-    private final String host = "127.0.0.1";
+    @Value("${gateway.forward.socket.readTimeout:5000}")
+    private volatile long readTimeout = 5000;
 
     /**
-     * Socket 服务器端口（后续数据库表获取）
+     * Netty 线程拓扑
      */
-    private final int port = 8081;
+    private final EventLoopTopology topology;
 
     /**
-     * 处理进程
+     * 后端长连接池
      */
-    private final EventLoopGroup group;
+    private final SocketChannelPool channelPool;
+
+    /**
+     * 后端路由
+     */
+    private final Router<InetSocketAddress> router;
+
+    /**
+     * 后端熔断器
+     */
+    private final CircuitBreaker breaker;
+
+    /**
+     * 网关指标
+     */
+    private final GatewayMetrics metrics;
 
     /**
      * 状态标记位
@@ -61,10 +79,20 @@ public class SocketClientNetty implements ApplicationListener<ContextClosedEvent
     /**
      * 带参构造函数
      *
-     * @param httpSocketGroup 参数说明
+     * @param topology Netty 线程拓扑
+     * @param channelPool 参数说明
+     * @param router 后端路由
+     * @param breaker 后端熔断器
+     * @param metrics 网关指标
      */
-    public SocketClientNetty(EventLoopGroup httpSocketGroup) {
-        this.group = httpSocketGroup;
+    public SocketClientNetty(EventLoopTopology topology, SocketChannelPool channelPool,
+                             @Qualifier("socketRouter") Router<InetSocketAddress> router,
+                             @Qualifier("socketCircuitBreaker") CircuitBreaker breaker, GatewayMetrics metrics) {
+        this.topology = topology;
+        this.channelPool = channelPool;
+        this.router = router;
+        this.breaker = breaker;
+        this.metrics = metrics;
     }
 
     /**
@@ -78,78 +106,184 @@ public class SocketClientNetty implements ApplicationListener<ContextClosedEvent
             return Mono.error(new IllegalStateException("Client is shutting down"));
         }
 
-        return Mono.create(stringMonoSink -> {
-            try {
-                final AtomicBoolean responseReceived = new AtomicBoolean(false);
-                Bootstrap bootstrap = new Bootstrap();
-                bootstrap.group(group)
-                        .channel(NioSocketChannel.class)
-                        .handler(new ChannelInitializer<SocketChannel>() {
-                            @Override
-                            protected void initChannel(SocketChannel ch) {
-                                ch.pipeline().addLast(
-                                        new StringEncoder(CharsetUtil.UTF_8),
-                                        new StringDecoder(CharsetUtil.UTF_8),
-                                        new SimpleChannelInboundHandler<String>() {
-                                            @Override
-                                            protected void channelRead0(ChannelHandlerContext ctx, String s) {
-                                                log.info("Received Response from Socket: {}", s);
-                                                responseReceived.set(true);
-                                                try {
-                                                    // 正常返回数据
-                                                    stringMonoSink.success(s);
-                                                } catch (IllegalStateException e) {
-                                                    log.warn("Sink already completed");
-                                                }
-                                                ctx.close();
-                                            }
-
-                                            @Override
-                                            public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
-                                                log.error("Exception caught: {}", cause.getMessage());
-                                                if (!responseReceived.get()) {
-                                                    try {
-                                                        // 捕获异常并返回
-                                                        stringMonoSink.error(cause.getCause());
-                                                    } catch (IllegalStateException e) {
-                                                        log.warn("Sink already completed");
-                                                    }
-                                                }
-                                                ctx.close();
-                                            }
-                                        });
-                            }
-                        });
-                ChannelFuture future = bootstrap.connect(host, port).sync();
-                future.channel().writeAndFlush(message);
-                future.channel().closeFuture().addListener((ChannelFutureListener) f -> {
-                    // 仅在未收到响应时触发错误
-                    if (!responseReceived.get()) {
-                        try {
-                            // 捕获异常并返回
-                            stringMonoSink.error(new RuntimeException("Socket connection closed without response"));
-                        } catch (IllegalStateException e) {
-                            log.warn("Sink already completed");
-                        }
-                    }
-                });
+        if (channelPool.isMultiplexed()) {
+            return guarded(permit -> timed(routed(permit, address -> sendMultiplexed(message, address))));
+        }
+
+        return guarded(permit -> timed(routed(permit, address -> sendPooled(message, address))));
+    }
 
-                // 设置超时机制，避免无限等待
-                stringMonoSink.onDispose(() -> {
-                    if (!future.isDone()) {
-                        // 关闭通道
-                        future.channel().close();
+    /**
+     * 独占发送：连接在收到应答后归还
+     *
+     * @param message 发送报文体
+     * @param address 后端地址
+     * @return 返回值
+     */
+    private Mono<String> sendPooled(String message, InetSocketAddress address) {
+        return Mono.<String>create(sink -> {
+            final AtomicBoolean disposed = new AtomicBoolean(false);
+            final AtomicReference<Channel> acquired = new AtomicReference<>();
+            // 超时或取消时，放弃仍在等待应答的连接
+            sink.onDispose(() -> {
+                disposed.set(true);
+                Channel channel = acquired.get();
+                if (channel != null) {
+                    channelPool.abandon(channel, sink);
+                }
+            });
+
+            channelPool.acquire(address).addListener((FutureListener<Channel>) f -> {
+                if (!f.isSuccess()) {
+                    sink.error(f.cause());
+                    return;
+                }
+                Channel channel = f.getNow();
+                channel.attr(SocketChannelPool.PENDING).set(sink);
+                acquired.set(channel);
+                if (disposed.get()) {
+                    channelPool.abandon(channel, sink);
+                    return;
+                }
+                channel.writeAndFlush(message).addListener((ChannelFutureListener) wf -> {
+                    if (!wf.isSuccess() && channel.attr(SocketChannelPool.PENDING).compareAndSet(sink, null)) {
+                        channel.close();
+                        channelPool.release(channel);
+                        sink.error(wf.cause());
                     }
                 });
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            });
+        }).timeout(Duration.ofMillis(readTimeout));
+    }
+
+    /**
+     * 多路复用发送：写出后立即归还连接供其他请求共享，应答按关联标识匹配
+     *
+     * @param message 发送报文体
+     * @param address 后端地址
+     * @return 返回值
+     */
+    private Mono<String> sendMultiplexed(String message, InetSocketAddress address) {
+        String key = channelPool.correlationKey(message);
+        if (key == null || key.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("多路复用模式下报文缺少关联标识"));
+        }
+
+        return Mono.<String>create(sink -> {
+            final AtomicReference<Channel> registered = new AtomicReference<>();
+            // 超时或取消时仅注销本笔在途请求，不影响共享连接上的其他请求
+            sink.onDispose(() -> {
+                Channel channel = registered.get();
+                if (channel != null) {
+                    channelPool.deregister(channel, key, sink);
+                }
+            });
+
+            channelPool.acquire(address).addListener((FutureListener<Channel>) f -> {
+                if (!f.isSuccess()) {
+                    sink.error(f.cause());
+                    return;
+                }
+                Channel channel = f.getNow();
                 try {
-                    stringMonoSink.error(e);
-                } catch (IllegalStateException ex) {
-                    log.warn("Sink already completed");
+                    if (!channelPool.register(channel, key, sink)) {
+                        sink.error(new IllegalStateException("关联标识重复的请求仍在途：" + key));
+                        return;
+                    }
+                    registered.set(channel);
+                    channel.writeAndFlush(message).addListener((ChannelFutureListener) wf -> {
+                        if (!wf.isSuccess()) {
+                            channelPool.deregister(channel, key, sink);
+                            sink.error(wf.cause());
+                        }
+                    });
+                } finally {
+                    channelPool.release(channel);
                 }
+            });
+        }).timeout(Duration.ofMillis(readTimeout));
+    }
+
+    /**
+     * 应答超时时间 毫秒
+     *
+     * @return 返回值
+     */
+    public long getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * 调整应答超时时间，对新请求生效
+     *
+     * @param readTimeout 应答超时时间 毫秒
+     */
+    public void setReadTimeout(long readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * 按负载代价选择后端节点，并以本笔结果更新节点的耗时与错误率和熔断器；
+     * 节点已被路由摘除且仍有其他节点可用时，失败不计入熔断器
+     *
+     * @param permit 熔断许可
+     * @param send 向选定节点发送
+     * @return 返回值
+     */
+    private Mono<String> routed(CircuitBreaker.Permit permit, Function<InetSocketAddress, Mono<String>> send) {
+        return Mono.defer(() -> {
+            Backend<InetSocketAddress> backend = router.select();
+            Backend<InetSocketAddress>.Call call = backend.begin();
+            return send.apply(backend.getTarget())
+                    .doOnSuccess(s -> {
+                        call.success();
+                        permit.success();
+                    })
+                    .doOnError(e -> {
+                        call.failure();
+                        if (router.isolated(backend)) {
+                            permit.ignore();
+                        } else {
+                            permit.failure();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        call.ignore();
+                        permit.ignore();
+                    });
+        });
+    }
+
+    /**
+     * 熔断保护：熔断打开时不发出请求，立即失败
+     *
+     * @param response 持熔断许可构造应答，应答结束时结束许可
+     * @return 返回值
+     */
+    private Mono<String> guarded(Function<CircuitBreaker.Permit, Mono<String>> response) {
+        return Mono.defer(() -> {
+            CircuitBreaker.Permit permit = breaker.tryAcquire();
+            if (permit == null) {
+                metrics.circuitRejected(breaker.getName());
+                return Mono.error(new CircuitOpenException(breaker.getName()));
             }
-        }).timeout(Duration.ofSeconds(5)).cast(String.class);
+            return response.apply(permit);
+        });
+    }
+
+    /**
+     * 记录后端应答耗时，超时单独归类
+     *
+     * @param response 应答
+     * @return 返回值
+     */
+    private Mono<String> timed(Mono<String> response) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = metrics.start();
+            return response
+                    .doOnSuccess(s -> metrics.backend(sample, GatewayMetrics.BACKEND_SOCKET, (Throwable) null))
+                    .doOnError(e -> metrics.backend(sample, GatewayMetrics.BACKEND_SOCKET, e));
+        });
     }
 
     /**
@@ -159,15 +293,9 @@ public class SocketClientNetty implements ApplicationListener<ContextClosedEvent
     public void shutdown() {
         if (active.compareAndSet(true, false)) {
             log.info("Initiating graceful shutdown...");
-            // 停止接收新请求：立即停止接收新请求（0秒），允许2秒完成存量请求处理
-            group.shutdownGracefully(0, 2, TimeUnit.SECONDS)
-                    .addListener(future -> {
-                        if (future.isSuccess()) {
-                            log.info("Netty Socket Client resource released");
-                        } else {
-                            log.error("Shutdown error", future.cause());
-                        }
-                    });
+            // io 线程由线程拓扑统一关闭，此处只关闭连接池
+            channelPool.close();
+            log.info("Netty Socket Client resource released");
         }
     }
 
@@ -191,18 +319,12 @@ public class SocketClientNetty implements ApplicationListener<ContextClosedEvent
         Map<String, String> details = new LinkedHashMap<>();
         details.put("status", active.get() ? "SERVING" : "OUT_OF_SERVICE");
 
-        // 尝试获取实时线程数
-        int currentThreads = -1;
-        try {
-            if (group instanceof MultithreadEventLoopGroup) {
-                currentThreads = ((MultithreadEventLoopGroup) group).executorCount();
-            }
-        } catch (NoSuchMethodError e) {
-            // 兼容旧版本
-            currentThreads = Runtime.getRuntime().availableProcessors() * 2;
-        }
-
-        details.put("threads", currentThreads > 0 ? String.valueOf(currentThreads) : "unavailable");
+        details.put("threads", String.valueOf(topology.ioThreads()));
+        details.put("acquiredChannels", String.valueOf(channelPool.acquiredCount()));
+        details.put("circuit", breaker.getState().name());
+        details.put("backends", router.getBackends().stream()
+                .map(b -> b.getTarget() + "(outstanding=" + b.getOutstanding() + ")")
+                .collect(Collectors.joining(",")));
 
         return active.get() ? Health.up().withDetails(details).build() :
                 Health.down().withDetails(details).build();
@@ -1,13 +1,20 @@
 package com.atom.netpaygateway.client;
 
 import com.atom.netpaygateway.enums.EnumRespCode;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.route.Backend;
+import com.atom.netpaygateway.route.Router;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 
 /**
@@ -20,6 +27,19 @@ import java.net.Socket;
 @Service
 public class SocketClientSingle {
 
+    /**
+     * 网关指标
+     */
+    @Autowired
+    private GatewayMetrics metrics;
+
+    /**
+     * 后端路由
+     */
+    @Autowired
+    @Qualifier("socketShortRouter")
+    private Router<InetSocketAddress> router;
+
     /**
      * 单笔发送 Socket 请求
      *
@@ -27,7 +47,10 @@ public class SocketClientSingle {
      * @return 响应信息
      */
     public String sendMessage(String message) {
-        try (Socket socket = new Socket("127.0.0.1", 12345);
+        Timer.Sample sample = metrics.start();
+        Backend<InetSocketAddress> backend = router.select();
+        Backend<InetSocketAddress>.Call call = backend.begin();
+        try (Socket socket = connect(backend.getTarget());
              PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
              BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
             // 发送消息到 Socket 服务
@@ -38,10 +61,31 @@ public class SocketClientSingle {
             while ((line = in.readLine()) != null) {
                 response.append(line).append("\n");
             }
+            metrics.backend(sample, GatewayMetrics.BACKEND_SOCKET, EnumRespCode.SUCCESS);
+            call.success();
             return response.toString().trim();
         } catch (IOException ex) {
             log.warn("Socket 调用异常", ex);
+            metrics.backend(sample, GatewayMetrics.BACKEND_SOCKET, ex);
+            call.failure();
             return EnumRespCode.FAIL.getCode();
+        } finally {
+            // 非 IO 异常时同样归还在途计数
+            call.ignore();
         }
     }
+
+    /**
+     * 建立连接并记录建连耗时
+     *
+     * @param address 后端地址
+     * @return 返回值
+     * @throws IOException 连接异常
+     */
+    private Socket connect(InetSocketAddress address) throws IOException {
+        long start = System.nanoTime();
+        Socket socket = new Socket(address.getAddress(), address.getPort());
+        metrics.connect(GatewayMetrics.BACKEND_SOCKET, System.nanoTime() - start);
+        return socket;
+    }
 }
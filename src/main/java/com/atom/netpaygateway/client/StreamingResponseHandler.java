@@ -0,0 +1,234 @@
+package com.atom.netpaygateway.client;
+
+import com.atom.netpaygateway.codec.ResponseSlot;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.util.AttributeKey;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.asynchttpclient.AsyncHandler;
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Http 应答流式转发：每个分片到达即拷贝到下游通道的缓冲区并写出，不在内存中聚合完整应答
+ * <p>
+ * 下游通道超过高水位（不可写）时暂停读取 Http 连接，待已写分片刷出且恢复可写后继续。
+ * AsyncHttpClient 关闭了 autoRead 并在每次读取完成后主动 read()，因此通过 {@link ReadGate} 拦截 read() 实现暂停；
+ * 不使用 StreamedAsyncHandler，因其发布者会缓存分片，而 LAZY 分片的缓冲区在回调返回后即被释放
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class StreamingResponseHandler implements AsyncHandler<Long> {
+
+    /**
+     * 下游应答槽位
+     */
+    private final ResponseSlot slot;
+
+    /**
+     * 下游通道（Socket 客户端）
+     */
+    private final Channel target;
+
+    /**
+     * 上游通道（Http 连接），用于暂停/恢复读取
+     */
+    private volatile Channel upstream;
+
+    /**
+     * 最近一次写出
+     */
+    private volatile ChannelFuture lastWrite;
+
+    /**
+     * 是否已暂停读取 Http 应答
+     */
+    private volatile boolean paused;
+
+    /**
+     * 恢复读取：最近一次写出完成后下游仍不可写则继续等待。
+     * 出站缓冲区先通知写出完成、后扣减待写字节，此时可写状态可能尚未更新；
+     * 最近一次写出已完成时在下游 EventLoop 的下一轮再检查，不能向已完成的 future 重复添加自身（会在同一次通知中无限循环）
+     */
+    private final ChannelFutureListener resumeListener = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            if (future.isSuccess() && !target.isWritable()) {
+                ChannelFuture last = lastWrite;
+                if (last.isDone()) {
+                    target.eventLoop().execute(() -> operationComplete(last));
+                } else {
+                    last.addListener(this);
+                }
+                return;
+            }
+            resume();
+        }
+    };
+
+    /**
+     * 已转发字节数
+     */
+    private volatile long relayed;
+
+    /**
+     * 应答状态码
+     */
+    private int statusCode;
+
+    /**
+     * 带参构造函数
+     *
+     * @param slot 下游应答槽位
+     */
+    public StreamingResponseHandler(ResponseSlot slot) {
+        this.slot = slot;
+        this.target = slot.channel();
+    }
+
+    @Override
+    public void onTcpConnectSuccess(InetSocketAddress remoteAddress, Channel connection) {
+        upstream = connection;
+    }
+
+    @Override
+    public void onConnectionPooled(Channel connection) {
+        upstream = connection;
+    }
+
+    @Override
+    public State onStatusReceived(HttpResponseStatus responseStatus) {
+        statusCode = responseStatus.getStatusCode();
+        return statusCode >= 400 ? State.ABORT : State.CONTINUE;
+    }
+
+    @Override
+    public State onHeadersReceived(HttpHeaders headers) {
+        return State.CONTINUE;
+    }
+
+    @Override
+    public State onBodyPartReceived(HttpResponseBodyPart bodyPart) {
+        if (!target.isActive()) {
+            return State.ABORT;
+        }
+        ByteBuffer content = bodyPart.getBodyByteBuffer();
+        int length = content.remaining();
+        if (length == 0) {
+            return State.CONTINUE;
+        }
+        ByteBuf chunk = target.alloc().directBuffer(length).writeBytes(content);
+        relayed += length;
+        lastWrite = slot.write(chunk);
+        Channel connection = upstream;
+        if (!paused && connection != null && !target.isWritable()) {
+            // 下游超过高水位：暂停读取 Http 应答，待已写分片刷出且恢复可写后继续
+            paused = true;
+            ReadGate.pause(connection);
+            lastWrite.addListener(resumeListener);
+        }
+        return State.CONTINUE;
+    }
+
+    @Override
+    public void onThrowable(Throwable t) {
+        resume();
+    }
+
+    @Override
+    public Long onCompleted() {
+        // 连接归还连接池前必须恢复读取
+        resume();
+        if (statusCode >= 400) {
+            throw new RuntimeException("HTTP请求失败，状态码：" + statusCode);
+        }
+        return relayed;
+    }
+
+    /**
+     * 已转发字节数
+     *
+     * @return 返回值
+     */
+    public long relayed() {
+        return relayed;
+    }
+
+    private void resume() {
+        paused = false;
+        Channel connection = upstream;
+        if (connection != null) {
+            ReadGate.resume(connection);
+        }
+    }
+
+    /**
+     * 读取闸门：暂停期间拦截 read()，恢复时补发被拦截的 read()
+     * <p>
+     * 状态只在 Http 连接的 EventLoop 中读写
+     */
+    @ChannelHandler.Sharable
+    static final class ReadGate extends ChannelOutboundHandlerAdapter {
+
+        private static final String NAME = "streamingReadGate";
+
+        private static final ReadGate INSTANCE = new ReadGate();
+
+        /**
+         * 是否暂停
+         */
+        private static final AttributeKey<Boolean> PAUSED = AttributeKey.valueOf("streamingReadPaused");
+
+        /**
+         * 暂停期间是否拦截过 read()
+         */
+        private static final AttributeKey<Boolean> SUPPRESSED = AttributeKey.valueOf("streamingReadSuppressed");
+
+        static void pause(Channel channel) {
+            inEventLoop(channel, () -> {
+                if (channel.pipeline().get(NAME) == null) {
+                    channel.pipeline().addFirst(NAME, INSTANCE);
+                }
+                channel.attr(PAUSED).set(Boolean.TRUE);
+            });
+        }
+
+        static void resume(Channel channel) {
+            inEventLoop(channel, () -> {
+                if (channel.attr(PAUSED).getAndSet(null) != null && channel.attr(SUPPRESSED).getAndSet(null) != null) {
+                    channel.read();
+                }
+            });
+        }
+
+        /**
+         * 在 Http 连接的 EventLoop 中执行：已在其中（分片回调所在线程）时立即执行，
+         * 否则提交执行；若总是提交，暂停生效前 AsyncHttpClient 发出的下一次 read() 不会被拦截
+         */
+        private static void inEventLoop(Channel channel, Runnable task) {
+            if (channel.eventLoop().inEventLoop()) {
+                task.run();
+            } else {
+                channel.eventLoop().execute(task);
+            }
+        }
+
+        @Override
+        public void read(ChannelHandlerContext ctx) {
+            if (ctx.channel().attr(PAUSED).get() != null) {
+                ctx.channel().attr(SUPPRESSED).set(Boolean.TRUE);
+                return;
+            }
+            ctx.read();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.atom.netpaygateway.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程执行器：每个任务一个虚拟线程，以信号量限制同时执行的任务数
+ * <p>
+ * 信号量在虚拟线程内获取，提交方（Tomcat/Selector 线程）不会阻塞；
+ * 等待执行的任务数超过上限时拒绝提交。工程以 Java 11 编译，虚拟线程通过反射创建，需运行在 JDK 21 及以上
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+public class VirtualThreadTaskExecutor implements TaskExecutor, DisposableBean {
+
+    /**
+     * 虚拟线程工厂
+     */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * 同时执行的任务数许可
+     */
+    private final Semaphore permits;
+
+    /**
+     * 已提交未完成任务数上限（执行中 + 等待许可）
+     */
+    private final int maxPending;
+
+    /**
+     * 已提交未完成任务数
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * 优雅关闭最长等待时间 秒
+     */
+    private final int awaitTerminationSeconds;
+
+    /**
+     * 是否已关闭
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * 带参构造函数
+     *
+     * @param threadFactory 虚拟线程工厂
+     * @param maxConcurrency 最大同时执行任务数
+     * @param maxWaiting 最大等待许可任务数
+     * @param awaitTerminationSeconds 优雅关闭最长等待时间 秒
+     */
+    public VirtualThreadTaskExecutor(ThreadFactory threadFactory, int maxConcurrency, int maxWaiting,
+                                     int awaitTerminationSeconds) {
+        this.threadFactory = threadFactory;
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxPending = maxConcurrency + maxWaiting;
+        this.awaitTerminationSeconds = awaitTerminationSeconds;
+    }
+
+    /**
+     * 创建虚拟线程工厂
+     *
+     * @param prefix 线程名前缀
+     * @return 当前 JDK 不支持虚拟线程时返回 null
+     */
+    public static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown) {
+            throw new TaskRejectedException("执行器已关闭");
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new TaskRejectedException("虚拟线程执行器已满：" + maxPending);
+        }
+        try {
+            threadFactory.newThread(() -> run(task)).start();
+        } catch (RuntimeException | Error e) {
+            pending.decrementAndGet();
+            throw new TaskRejectedException("虚拟线程创建失败", e);
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            permits.acquire();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * 已提交未完成任务数
+     *
+     * @return 返回值
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * 关闭：不再接收任务，等待已提交任务完成
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        shutdown = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(awaitTerminationSeconds);
+        while (pending.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        if (pending.get() > 0) {
+            log.warn("虚拟线程执行器关闭超时，未完成任务数：{}", pending.get());
+        }
+    }
+}
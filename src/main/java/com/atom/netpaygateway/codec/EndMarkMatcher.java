@@ -0,0 +1,90 @@
+package com.atom.netpaygateway.codec;
+
+import io.netty.util.ByteProcessor;
+
+/**
+ * 报文终止符增量匹配器（KMP），匹配状态跨多次扫描保留
+ * <p>
+ * 非线程安全，每个连接/解码器各持有一个实例
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class EndMarkMatcher implements ByteProcessor {
+
+    /**
+     * 终止符
+     */
+    private final byte[] needle;
+
+    /**
+     * KMP 失配跳转表
+     */
+    private final int[] failure;
+
+    /**
+     * 已匹配的终止符字节数
+     */
+    private int matched;
+
+    /**
+     * 带参构造函数
+     *
+     * @param needle 终止符
+     */
+    public EndMarkMatcher(byte[] needle) {
+        if (needle.length == 0) {
+            throw new IllegalArgumentException("end mark must not be empty");
+        }
+        this.needle = needle.clone();
+        this.failure = new int[needle.length];
+        for (int i = 1, k = 0; i < needle.length; i++) {
+            while (k > 0 && needle[i] != needle[k]) {
+                k = failure[k - 1];
+            }
+            if (needle[i] == needle[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+    }
+
+    /**
+     * 处理一个字节
+     *
+     * @param value 字节
+     * @return 匹配到完整终止符时返回 false 以停止扫描
+     */
+    @Override
+    public boolean process(byte value) {
+        int k = matched;
+        while (k > 0 && value != needle[k]) {
+            k = failure[k - 1];
+        }
+        if (value == needle[k]) {
+            k++;
+        }
+        if (k == needle.length) {
+            matched = 0;
+            return false;
+        }
+        matched = k;
+        return true;
+    }
+
+    /**
+     * 重置匹配状态
+     */
+    public void reset() {
+        matched = 0;
+    }
+
+    /**
+     * 终止符长度
+     *
+     * @return 返回值
+     */
+    public int length() {
+        return needle.length;
+    }
+}
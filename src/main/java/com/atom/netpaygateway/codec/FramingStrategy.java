@@ -0,0 +1,158 @@
+package com.atom.netpaygateway.codec;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.netty.channel.ChannelHandler;
+
+/**
+ * Socket 分帧策略：delimiter（按 &lt;/Document&gt; 结束符切帧）或 length（定长长度头）
+ * <p>
+ * 长度头格式：binary（大端无符号整数，1/2/3/4/8 字节）或 ascii（十进制左补 0，1~18 字节）。
+ * 分帧只影响线上字节，解码后的报文帧不含长度头，编解码器与业务处理不区分策略
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public final class FramingStrategy {
+
+    /**
+     * 结束符分帧
+     */
+    public static final String DELIMITER = "delimiter";
+
+    /**
+     * 长度字段分帧
+     */
+    public static final String LENGTH = "length";
+
+    /**
+     * 长度头格式-二进制大端
+     */
+    public static final String BINARY = "binary";
+
+    /**
+     * 长度头格式-ASCII 十进制
+     */
+    public static final String ASCII = "ascii";
+
+    /**
+     * 分帧方式
+     */
+    private final String mode;
+
+    /**
+     * 长度头是否为 ASCII 十进制
+     */
+    private final boolean ascii;
+
+    /**
+     * 长度头字节数
+     */
+    private final int headerLength;
+
+    /**
+     * 长度值是否包含长度头本身
+     */
+    private final boolean includesHeader;
+
+    /**
+     * 最大报文长度（不含长度头）
+     */
+    private final int maxFrameSize;
+
+    /**
+     * 长度头编码器（所有连接共享），结束符分帧时为 null
+     */
+    private final ChannelHandler encoder;
+
+    private FramingStrategy(String mode, boolean ascii, int headerLength, boolean includesHeader, int maxFrameSize) {
+        this.mode = mode;
+        this.ascii = ascii;
+        this.headerLength = headerLength;
+        this.includesHeader = includesHeader;
+        this.maxFrameSize = maxFrameSize;
+        this.encoder = DELIMITER.equals(mode) ? null : new LengthFieldFrameEncoder(headerLength, ascii, includesHeader);
+    }
+
+    /**
+     * 结束符分帧
+     *
+     * @param maxFrameSize 最大报文长度
+     * @return 返回值
+     */
+    public static FramingStrategy delimiter(int maxFrameSize) {
+        return new FramingStrategy(DELIMITER, false, 0, false, maxFrameSize);
+    }
+
+    /**
+     * 按配置创建
+     *
+     * @param mode 分帧方式：delimiter/length
+     * @param headerFormat 长度头格式：binary/ascii
+     * @param headerLength 长度头字节数
+     * @param includesHeader 长度值是否包含长度头本身
+     * @param maxFrameSize 最大报文长度（不含长度头）
+     * @return 返回值
+     */
+    public static FramingStrategy of(String mode, String headerFormat, int headerLength, boolean includesHeader,
+                                     int maxFrameSize) {
+        if (DELIMITER.equalsIgnoreCase(mode)) {
+            return delimiter(maxFrameSize);
+        }
+        if (!LENGTH.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("unknown framing mode: " + mode);
+        }
+        if (ASCII.equalsIgnoreCase(headerFormat)) {
+            if (headerLength < 1 || headerLength > 18) {
+                throw new IllegalArgumentException("ascii header length must be 1~18: " + headerLength);
+            }
+            return new FramingStrategy(LENGTH, true, headerLength, includesHeader, maxFrameSize);
+        }
+        if (!BINARY.equalsIgnoreCase(headerFormat)) {
+            throw new IllegalArgumentException("unknown header format: " + headerFormat);
+        }
+        if (headerLength != 1 && headerLength != 2 && headerLength != 3 && headerLength != 4 && headerLength != 8) {
+            throw new IllegalArgumentException("binary header length must be 1, 2, 3, 4 or 8: " + headerLength);
+        }
+        return new FramingStrategy(LENGTH, false, headerLength, includesHeader, maxFrameSize);
+    }
+
+    /**
+     * 是否为结束符分帧
+     *
+     * @return 返回值
+     */
+    public boolean isDelimited() {
+        return encoder == null;
+    }
+
+    /**
+     * 新建入站分帧解码器（有状态，每个连接一个）
+     *
+     * @param frameSize 报文长度分布
+     * @return 返回值
+     */
+    public ChannelHandler newDecoder(DistributionSummary frameSize) {
+        if (isDelimited()) {
+            return new XmlMessageDecoder(maxFrameSize, frameSize);
+        }
+        return new LengthFieldFrameDecoder(headerLength, ascii, includesHeader, maxFrameSize, frameSize);
+    }
+
+    /**
+     * 出站长度头编码器（所有连接共享），位于报文编码器之前（靠近 head）
+     *
+     * @return 返回值，结束符分帧时为 null
+     */
+    public ChannelHandler encoder() {
+        return encoder;
+    }
+
+    @Override
+    public String toString() {
+        if (isDelimited()) {
+            return DELIMITER;
+        }
+        return LENGTH + "(" + (ascii ? ASCII : BINARY) + ", " + headerLength + " bytes"
+                + (includesHeader ? ", includes header" : "") + ")";
+    }
+}
@@ -0,0 +1,72 @@
+package com.atom.netpaygateway.codec;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+import java.nio.ByteOrder;
+
+/**
+ * 长度字段分帧解码器：报文前为定长长度头（二进制大端或 ASCII 十进制），按长度直接切帧，不扫描报文内容
+ * <p>
+ * 输出的报文帧不含长度头，与 {@link XmlMessageDecoder} 的输出一致
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class LengthFieldFrameDecoder extends LengthFieldBasedFrameDecoder {
+
+    /**
+     * 长度头是否为 ASCII 十进制
+     */
+    private final boolean ascii;
+
+    /**
+     * 报文长度分布，可为 null
+     */
+    private final DistributionSummary frameSize;
+
+    /**
+     * 带参构造函数
+     *
+     * @param headerLength 长度头字节数
+     * @param ascii 长度头是否为 ASCII 十进制，否则为二进制大端
+     * @param includesHeader 长度值是否包含长度头本身
+     * @param maxFrameSize 最大报文长度（不含长度头）
+     * @param frameSize 报文长度分布
+     */
+    public LengthFieldFrameDecoder(int headerLength, boolean ascii, boolean includesHeader, int maxFrameSize,
+                                   DistributionSummary frameSize) {
+        super(ByteOrder.BIG_ENDIAN, maxFrameSize + headerLength, 0, headerLength,
+                includesHeader ? -headerLength : 0, headerLength, true);
+        this.ascii = ascii;
+        this.frameSize = frameSize;
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+        Object frame = super.decode(ctx, in);
+        if (frame != null && frameSize != null) {
+            frameSize.record(((ByteBuf) frame).readableBytes());
+        }
+        return frame;
+    }
+
+    @Override
+    protected long getUnadjustedFrameLength(ByteBuf buf, int offset, int length, ByteOrder order) {
+        if (!ascii) {
+            return super.getUnadjustedFrameLength(buf, offset, length, order);
+        }
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = buf.getByte(i);
+            if (b < '0' || b > '9') {
+                throw new CorruptedFrameException("invalid ascii length header at byte " + (i - offset) + ": " + b);
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,85 @@
+package com.atom.netpaygateway.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.EncoderException;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
+
+/**
+ * 长度字段分帧编码器：在每个出站报文前写入定长长度头（二进制大端或 ASCII 十进制，左补 0）
+ * <p>
+ * 长度头与报文组成一个 CompositeByteBuf 写出，不拷贝报文。每次 write 视为一个完整报文，
+ * 因此不能用于分片写回的流式应答。无状态，可在多个连接间共享
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@ChannelHandler.Sharable
+public class LengthFieldFrameEncoder extends MessageToMessageEncoder<ByteBuf> {
+
+    /**
+     * 长度头字节数
+     */
+    private final int headerLength;
+
+    /**
+     * 长度头是否为 ASCII 十进制
+     */
+    private final boolean ascii;
+
+    /**
+     * 长度值是否包含长度头本身
+     */
+    private final boolean includesHeader;
+
+    /**
+     * 带参构造函数
+     *
+     * @param headerLength 长度头字节数
+     * @param ascii 长度头是否为 ASCII 十进制，否则为二进制大端
+     * @param includesHeader 长度值是否包含长度头本身
+     */
+    public LengthFieldFrameEncoder(int headerLength, boolean ascii, boolean includesHeader) {
+        this.headerLength = headerLength;
+        this.ascii = ascii;
+        this.includesHeader = includesHeader;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+        long length = msg.readableBytes() + (includesHeader ? headerLength : 0);
+        ByteBuf header = ctx.alloc().directBuffer(headerLength);
+        try {
+            writeHeader(header, length);
+        } catch (RuntimeException e) {
+            header.release();
+            throw e;
+        }
+        out.add(ctx.alloc().compositeDirectBuffer(2).addComponents(true, header, msg.retain()));
+    }
+
+    private void writeHeader(ByteBuf header, long length) {
+        if (ascii) {
+            String digits = Long.toString(length);
+            if (digits.length() > headerLength) {
+                throw new EncoderException("length " + length + " does not fit in " + headerLength + " ascii digits");
+            }
+            for (int i = digits.length(); i < headerLength; i++) {
+                header.writeByte('0');
+            }
+            for (int i = 0; i < digits.length(); i++) {
+                header.writeByte(digits.charAt(i));
+            }
+            return;
+        }
+        if (headerLength < 8 && length >= 1L << (headerLength * 8)) {
+            throw new EncoderException("length " + length + " does not fit in " + headerLength + " bytes");
+        }
+        for (int shift = (headerLength - 1) * 8; shift >= 0; shift -= 8) {
+            header.writeByte((int) (length >>> shift));
+        }
+    }
+}
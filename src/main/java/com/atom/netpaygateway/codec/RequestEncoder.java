@@ -1,10 +1,54 @@
 package com.atom.netpaygateway.codec;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
+
 /**
- * 请求编码器
+ * 请求编码器：将 String 报文按 UTF-8 直接写入池化直接缓冲区
+ * <p>
+ * 替代 StringEncoder（经 CharBuffer 与 CharsetEncoder 转换，并按最大字节数预留容量）：
+ * 先计算报文的 UTF-8 字节数，按精确大小分配后逐字符写入，不产生中间对象。
+ * 非 CharSequence 的消息（如字节模式下的 ByteBuf）原样传递。无状态，可在多个连接间共享
  *
  * @author Tom
  * @date 7/3/2025
  */
-public class RequestEncoder {
+@ChannelHandler.Sharable
+public class RequestEncoder extends MessageToMessageEncoder<CharSequence> {
+
+    /**
+     * 缓冲区分配器
+     */
+    private final ByteBufAllocator allocator;
+
+    /**
+     * 带参构造函数
+     *
+     * @param allocator 缓冲区分配器
+     */
+    public RequestEncoder(ByteBufAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, CharSequence msg, List<Object> out) {
+        if (msg.length() == 0) {
+            return;
+        }
+        int length = ByteBufUtil.utf8Bytes(msg);
+        ByteBuf buf = allocator.directBuffer(length);
+        try {
+            ByteBufUtil.reserveAndWriteUtf8(buf, msg, length);
+            out.add(buf);
+        } catch (RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+    }
 }
@@ -1,10 +1,27 @@
 package com.atom.netpaygateway.codec;
 
+import com.atom.netpaygateway.model.XmlMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+
+import java.util.List;
+
 /**
- * 响应解码器
+ * 响应解码器：将 {@link XmlMessageDecoder} 切出的报文帧包装为 {@link XmlMessage}
+ * <p>
+ * 替代 StringDecoder：不在解码阶段生成 String，业务代码需要文本时才解码，
+ * 只记录日志、按长度判断或丢弃的报文不再产生 String。无状态，可在多个连接间共享
  *
  * @author Tom
  * @date 7/3/2025
  */
-public class ResponseDecoder {
+@ChannelHandler.Sharable
+public class ResponseDecoder extends MessageToMessageDecoder<ByteBuf> {
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+        out.add(new XmlMessage(msg.retain()));
+    }
 }
@@ -0,0 +1,127 @@
+package com.atom.netpaygateway.codec;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+
+/**
+ * 应答排序：同一连接上流水线发送的多笔报文并发转发，应答按请求顺序写回
+ * <p>
+ * 每收到一笔报文占用一个 {@link ResponseSlot}；队首槽位的应答直接写出，其余槽位的应答暂存，
+ * 待前序槽位完成后依次刷出。在途报文达到上限时暂停读取，低于上限后恢复。
+ * 所有状态只在通道的 EventLoop 中读写，每个连接一个实例
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class ResponseSequencer extends ChannelInboundHandlerAdapter {
+
+    /**
+     * 单连接最大在途报文数
+     */
+    private final int maxPipelined;
+
+    /**
+     * 在途槽位，按请求顺序排列
+     */
+    private final ArrayDeque<ResponseSlot> slots = new ArrayDeque<>();
+
+    /**
+     * 通道
+     */
+    private Channel channel;
+
+    /**
+     * 通道是否已关闭
+     */
+    private boolean closed;
+
+    /**
+     * 带参构造函数
+     *
+     * @param maxPipelined 单连接最大在途报文数
+     */
+    public ResponseSequencer(int maxPipelined) {
+        this.maxPipelined = Math.max(1, maxPipelined);
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        channel = ctx.channel();
+    }
+
+    /**
+     * 为新到达的报文分配应答槽位，须在 EventLoop 中按报文到达顺序调用
+     *
+     * @return 返回值
+     */
+    public ResponseSlot next() {
+        ResponseSlot slot = new ResponseSlot(this);
+        if (closed) {
+            slot.completed = true;
+            return slot;
+        }
+        slots.add(slot);
+        if (slots.size() >= maxPipelined) {
+            channel.config().setAutoRead(false);
+        }
+        return slot;
+    }
+
+    /**
+     * 在途报文数
+     *
+     * @return 返回值
+     */
+    public int inFlight() {
+        return slots.size();
+    }
+
+    Channel channel() {
+        return channel;
+    }
+
+    void write(ResponseSlot slot, Object msg, ChannelPromise promise) {
+        if (closed || slot.completed) {
+            slot.discard(msg, promise, new ClosedChannelException());
+        } else if (slot == slots.peekFirst()) {
+            channel.writeAndFlush(msg, promise);
+        } else {
+            slot.buffer(msg, promise);
+        }
+    }
+
+    void complete(ResponseSlot slot) {
+        if (slot.completed) {
+            return;
+        }
+        slot.completed = true;
+        ResponseSlot head;
+        while ((head = slots.peekFirst()) != null) {
+            head.flushTo(channel);
+            if (!head.completed) {
+                break;
+            }
+            slots.pollFirst();
+        }
+        if (!closed && slots.size() < maxPipelined && !channel.config().isAutoRead()) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        closed = true;
+        ClosedChannelException cause = new ClosedChannelException();
+        for (ResponseSlot slot : slots) {
+            slot.completed = true;
+            slot.discardAll(cause);
+        }
+        slots.clear();
+        super.channelInactive(ctx);
+    }
+}
@@ -0,0 +1,134 @@
+package com.atom.netpaygateway.codec;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 应答槽位：一笔流水线报文的应答出口，可多次写出（流式分片），最后调用 {@link #complete()}
+ * <p>
+ * 可在任意线程调用，操作按调用顺序投递到通道的 EventLoop 执行；
+ * 返回的 ChannelFuture 在数据真正写出（而非暂存）后完成
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class ResponseSlot {
+
+    /**
+     * 所属排序器
+     */
+    private final ResponseSequencer sequencer;
+
+    /**
+     * 暂存的应答，槽位到达队首前不写出
+     */
+    private List<Object> pending;
+
+    /**
+     * 暂存应答对应的写出结果
+     */
+    private List<ChannelPromise> promises;
+
+    /**
+     * 是否已完成
+     */
+    boolean completed;
+
+    ResponseSlot(ResponseSequencer sequencer) {
+        this.sequencer = sequencer;
+    }
+
+    /**
+     * 所属通道
+     *
+     * @return 返回值
+     */
+    public Channel channel() {
+        return sequencer.channel();
+    }
+
+    /**
+     * 写出应答（或应答分片）
+     *
+     * @param msg 应答
+     * @return 返回值
+     */
+    public ChannelFuture write(Object msg) {
+        Channel channel = channel();
+        ChannelPromise promise = channel.newPromise();
+        EventLoop eventLoop = channel.eventLoop();
+        if (eventLoop.inEventLoop()) {
+            sequencer.write(this, msg, promise);
+        } else {
+            eventLoop.execute(() -> sequencer.write(this, msg, promise));
+        }
+        return promise;
+    }
+
+    /**
+     * 应答写完，释放槽位
+     */
+    public void complete() {
+        EventLoop eventLoop = channel().eventLoop();
+        if (eventLoop.inEventLoop()) {
+            sequencer.complete(this);
+        } else {
+            eventLoop.execute(() -> sequencer.complete(this));
+        }
+    }
+
+    /**
+     * 写出应答并释放槽位
+     *
+     * @param msg 应答
+     * @return 返回值
+     */
+    public ChannelFuture complete(Object msg) {
+        ChannelFuture future = write(msg);
+        complete();
+        return future;
+    }
+
+    void buffer(Object msg, ChannelPromise promise) {
+        if (pending == null) {
+            pending = new ArrayList<>(2);
+            promises = new ArrayList<>(2);
+        }
+        pending.add(msg);
+        promises.add(promise);
+    }
+
+    void flushTo(Channel channel) {
+        if (pending == null) {
+            return;
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            channel.write(pending.get(i), promises.get(i));
+        }
+        channel.flush();
+        pending = null;
+        promises = null;
+    }
+
+    void discard(Object msg, ChannelPromise promise, Throwable cause) {
+        ReferenceCountUtil.release(msg);
+        promise.tryFailure(cause);
+    }
+
+    void discardAll(Throwable cause) {
+        if (pending == null) {
+            return;
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            discard(pending.get(i), promises.get(i), cause);
+        }
+        pending = null;
+        promises = null;
+    }
+}
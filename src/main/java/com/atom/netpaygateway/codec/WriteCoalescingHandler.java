@@ -0,0 +1,164 @@
+package com.atom.netpaygateway.codec;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写合并：推迟 flush，把时间窗口内到达的多笔报文合并为一次系统调用写出
+ * <p>
+ * 收到 flush 时不立即刷出，而是在 window 后统一刷出；窗口为 0 时在 EventLoop 本轮任务执行完后刷出。
+ * 待刷出字节达到 maxBytes、通道变为不可写或关闭时立即刷出。
+ * 记录每次刷出的报文数（gateway.netty.write.batch）与因合并增加的时延（gateway.netty.write.delay）。
+ * 所有状态只在通道的 EventLoop 中读写，每个连接一个实例
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class WriteCoalescingHandler extends ChannelDuplexHandler {
+
+    /**
+     * 合并窗口 纳秒
+     */
+    private final long windowNanos;
+
+    /**
+     * 待刷出字节上限，达到后立即刷出
+     */
+    private final int maxBytes;
+
+    /**
+     * 每次刷出的报文数
+     */
+    private final DistributionSummary batchSize;
+
+    /**
+     * 因合并增加的时延
+     */
+    private final Timer delay;
+
+    /**
+     * 待刷出报文数
+     */
+    private int pendingMessages;
+
+    /**
+     * 待刷出字节数
+     */
+    private long pendingBytes;
+
+    /**
+     * 首次推迟 flush 的时间 纳秒，0 表示没有推迟的 flush
+     */
+    private long deferredAt;
+
+    /**
+     * 定时刷出任务
+     */
+    private ScheduledFuture<?> scheduled;
+
+    /**
+     * 带参构造函数
+     *
+     * @param windowMicros 合并窗口 微秒，0 表示 EventLoop 本轮任务执行完后刷出
+     * @param maxBytes 待刷出字节上限
+     * @param batchSize 每次刷出的报文数
+     * @param delay 因合并增加的时延
+     */
+    public WriteCoalescingHandler(long windowMicros, int maxBytes, DistributionSummary batchSize, Timer delay) {
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+        this.maxBytes = Math.max(1, maxBytes);
+        this.batchSize = batchSize;
+        this.delay = delay;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        pendingMessages++;
+        pendingBytes += size(msg);
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        if (pendingMessages == 0) {
+            ctx.flush();
+            return;
+        }
+        if (pendingBytes >= maxBytes) {
+            flushNow(ctx);
+            return;
+        }
+        if (deferredAt != 0) {
+            return;
+        }
+        deferredAt = System.nanoTime();
+        if (windowNanos == 0) {
+            ctx.executor().execute(() -> flushDeferred(ctx));
+        } else {
+            scheduled = ctx.executor().schedule(() -> flushDeferred(ctx), windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        // 出站缓冲区超过高水位时不再积攒
+        if (!ctx.channel().isWritable()) {
+            flushNow(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushNow(ctx);
+        ctx.close(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        flushNow(ctx);
+    }
+
+    private void flushDeferred(ChannelHandlerContext ctx) {
+        scheduled = null;
+        if (deferredAt != 0) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        if (pendingMessages == 0) {
+            return;
+        }
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+        batchSize.record(pendingMessages);
+        if (deferredAt != 0) {
+            delay.record(System.nanoTime() - deferredAt, TimeUnit.NANOSECONDS);
+        }
+        pendingMessages = 0;
+        pendingBytes = 0;
+        deferredAt = 0;
+        ctx.flush();
+    }
+
+    private static int size(Object msg) {
+        if (msg instanceof ByteBuf) {
+            return ((ByteBuf) msg).readableBytes();
+        }
+        if (msg instanceof ByteBufHolder) {
+            return ((ByteBufHolder) msg).content().readableBytes();
+        }
+        return 0;
+    }
+}
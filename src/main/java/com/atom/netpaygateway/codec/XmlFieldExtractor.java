@@ -0,0 +1,313 @@
+package com.atom.netpaygateway.codec;
+
+import com.atom.netpaygateway.model.MessageHeader;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.CharsetUtil;
+
+import java.util.List;
+
+/**
+ * XML 字段提取：直接在报文帧的字节上扫描标签，找到全部配置字段后立即停止，不解码整个报文、不构建 DOM
+ * <p>
+ * 字段按元素路径配置，路径为以 / 分隔的元素本地名（忽略命名空间前缀），与当前元素栈从后往前匹配，
+ * 如 MsgId 匹配任意位置的第一个 MsgId，GrpHdr/MsgId 只匹配 GrpHdr 下的 MsgId。
+ * 字段值为元素内第一段文本（去除首尾空白，不解析实体与 CDATA），空元素为空串，未找到为 null。
+ * 跳过注释、处理指令、DOCTYPE 与 CDATA 段，其中的标签不参与匹配；属性值中的 &gt; 不影响标签边界。
+ * String 报文只编码到找到全部字段为止的前缀。网关内报文标识（多路复用关联、幂等去重）统一由本类提取，
+ * 同一报文无论以字节还是 String 形式出现都得到相同的标识。
+ * 无状态，线程安全；耗时只与字段出现的位置有关，与报文长度无关
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class XmlFieldExtractor {
+
+    /**
+     * 元素栈最大深度，更深的元素不参与匹配
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * String 报文首次编码的字符数，未找到全部字段时按倍数扩大
+     */
+    private static final int PREFIX_CHARS = 1024;
+
+    private static final byte[] COMMENT = bytes("!--");
+
+    private static final byte[] COMMENT_END = bytes("-->");
+
+    private static final byte[] CDATA = bytes("![CDATA[");
+
+    private static final byte[] CDATA_END = bytes("]]>");
+
+    private static final byte[] PI_END = bytes("?>");
+
+    /**
+     * 字段名（配置的路径）
+     */
+    private final String[] fields;
+
+    /**
+     * 各字段路径的元素名
+     */
+    private final byte[][][] paths;
+
+    /**
+     * 带参构造函数
+     *
+     * @param fields 字段路径，如 MsgId、GrpHdr/MsgId
+     */
+    public XmlFieldExtractor(List<String> fields) {
+        this.fields = new String[fields.size()];
+        this.paths = new byte[fields.size()][][];
+        for (int i = 0; i < fields.size(); i++) {
+            String field = fields.get(i).trim();
+            String[] segments = field.split("/");
+            if (field.isEmpty() || field.startsWith("/") || field.endsWith("/") || field.contains("//")) {
+                throw new IllegalArgumentException("invalid field path: " + fields.get(i));
+            }
+            this.fields[i] = field;
+            this.paths[i] = new byte[segments.length][];
+            for (int j = 0; j < segments.length; j++) {
+                this.paths[i][j] = bytes(segments[j]);
+            }
+        }
+    }
+
+    /**
+     * 提取字段
+     *
+     * @param frame 报文帧，不改变读写位置
+     * @return 返回值
+     */
+    public MessageHeader extract(ByteBuf frame) {
+        String[] values = new String[fields.length];
+        int[] starts = new int[MAX_DEPTH];
+        int[] ends = new int[MAX_DEPTH];
+        int depth = 0;
+        int found = 0;
+        int end = frame.writerIndex();
+        int i = frame.readerIndex();
+        while (found < fields.length) {
+            int open = frame.indexOf(i, end, (byte) '<');
+            if (open < 0 || open + 1 >= end) {
+                break;
+            }
+            int p = open + 1;
+            byte b = frame.getByte(p);
+            if (b == '/') {
+                depth = Math.max(0, depth - 1);
+                i = frame.indexOf(p, end, (byte) '>');
+            } else if (b == '?') {
+                i = skipPast(frame, p, end, PI_END);
+            } else if (b == '!') {
+                i = startsWith(frame, p, end, COMMENT) ? skipPast(frame, p, end, COMMENT_END)
+                        : startsWith(frame, p, end, CDATA) ? skipPast(frame, p, end, CDATA_END)
+                        : frame.indexOf(p, end, (byte) '>');
+            } else {
+                int nameEnd = p;
+                while (nameEnd < end && !isNameEnd(frame.getByte(nameEnd))) {
+                    nameEnd++;
+                }
+                int close = tagEnd(frame, nameEnd, end);
+                if (close < 0) {
+                    break;
+                }
+                boolean empty = frame.getByte(close - 1) == '/';
+                if (depth < MAX_DEPTH) {
+                    starts[depth] = localStart(frame, p, nameEnd);
+                    ends[depth] = nameEnd;
+                }
+                depth++;
+                for (int f = 0; f < fields.length; f++) {
+                    if (values[f] == null && depth <= MAX_DEPTH && matches(frame, paths[f], starts, ends, depth)) {
+                        values[f] = empty ? "" : text(frame, close + 1, end);
+                        found++;
+                    }
+                }
+                if (empty) {
+                    depth--;
+                }
+                i = close;
+            }
+            if (i < 0) {
+                break;
+            }
+            i++;
+        }
+        return MessageHeader.of(fields, values);
+    }
+
+    /**
+     * 提取字段-String 报文：按 UTF-8 编码前缀后扫描，前缀内找到全部字段（且字段文本完整）即停止，
+     * 否则前缀按倍数扩大直到整个报文，结果与编码整个报文后提取相同
+     *
+     * @param message 报文
+     * @return 返回值
+     */
+    public MessageHeader extract(CharSequence message) {
+        int length = message.length();
+        int chars = Math.min(length, PREFIX_CHARS);
+        int encoded = 0;
+        ByteBuf prefix = PooledByteBufAllocator.DEFAULT.heapBuffer(ByteBufUtil.utf8MaxBytes(chars));
+        try {
+            while (true) {
+                // 不拆开代理对
+                if (chars < length && Character.isHighSurrogate(message.charAt(chars - 1))) {
+                    chars++;
+                }
+                ByteBufUtil.writeUtf8(prefix, message, encoded, chars);
+                encoded = chars;
+                MessageHeader header = extract(prefix);
+                if (chars == length || complete(header)) {
+                    return header;
+                }
+                chars = (int) Math.min(length, chars * 2L);
+            }
+        } finally {
+            prefix.release();
+        }
+    }
+
+    /**
+     * 字段名
+     *
+     * @return 返回值
+     */
+    public String[] fields() {
+        return fields.clone();
+    }
+
+    private boolean complete(MessageHeader header) {
+        for (String field : fields) {
+            if (header.get(field) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(ByteBuf frame, byte[][] path, int[] starts, int[] ends, int depth) {
+        if (path.length > depth) {
+            return false;
+        }
+        for (int k = 0; k < path.length; k++) {
+            int level = depth - 1 - k;
+            if (!equals(frame, starts[level], ends[level], path[path.length - 1 - k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equals(ByteBuf frame, int start, int end, byte[] name) {
+        if (end - start != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (frame.getByte(start + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 元素内第一段文本
+     */
+    private static String text(ByteBuf frame, int from, int end) {
+        int to = frame.indexOf(from, end, (byte) '<');
+        if (to < 0) {
+            return null;
+        }
+        int start = trimStart(frame, from, to);
+        return frame.toString(start, trimEnd(frame, start, to) - start, CharsetUtil.UTF_8);
+    }
+
+    /**
+     * 标签结束位置（&gt;），跳过引号内的属性值
+     */
+    private static int tagEnd(ByteBuf frame, int from, int end) {
+        byte quote = 0;
+        for (int i = from; i < end; i++) {
+            byte b = frame.getByte(i);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int localStart(ByteBuf frame, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (frame.getByte(i) == ':') {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * 跳过到结束标记的最后一个字节，未找到返回 -1
+     */
+    private static int skipPast(ByteBuf frame, int from, int end, byte[] mark) {
+        int index = indexOf(frame, from, end, mark);
+        return index < 0 ? -1 : index + mark.length - 1;
+    }
+
+    private static int indexOf(ByteBuf frame, int from, int end, byte[] mark) {
+        for (int i = frame.indexOf(from, end, mark[0]); i >= 0 && i + mark.length <= end;
+             i = frame.indexOf(i + 1, end, mark[0])) {
+            if (startsWith(frame, i, end, mark)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(ByteBuf frame, int from, int end, byte[] prefix) {
+        if (from + prefix.length > end) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (frame.getByte(from + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int trimStart(ByteBuf frame, int from, int to) {
+        while (from < to && isWhitespace(frame.getByte(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(ByteBuf frame, int from, int to) {
+        while (to > from && isWhitespace(frame.getByte(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    private static boolean isNameEnd(byte b) {
+        return b == '>' || b == '/' || isWhitespace(b);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(CharsetUtil.UTF_8);
+    }
+}
@@ -1,6 +1,7 @@
 package com.atom.netpaygateway.codec;
 
 import com.atom.netpaygateway.constants.Constants;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
@@ -28,7 +29,63 @@ public class XmlMessageDecoder extends ByteToMessageDecoder {
     private static final int MAX_FRAME_SIZE = 1024 * 1024 * 4;
 
     /**
-     * 自定义解码器
+     * 终止符匹配器，保留跨 decode 调用的部分匹配状态
+     */
+    private final EndMarkMatcher matcher = new EndMarkMatcher(END_MARK_BYTES);
+
+    /**
+     * 最大报文长度
+     */
+    private final int maxFrameSize;
+
+    /**
+     * 报文长度分布，可为 null
+     */
+    private final DistributionSummary frameSize;
+
+    /**
+     * 当前报文已扫描过的字节数（相对 readerIndex），下次从此处继续扫描
+     */
+    private int scanned;
+
+    /**
+     * 默认构造函数
+     */
+    public XmlMessageDecoder() {
+        this(MAX_FRAME_SIZE, null);
+    }
+
+    /**
+     * 带参构造函数
+     *
+     * @param frameSize 报文长度分布
+     */
+    public XmlMessageDecoder(DistributionSummary frameSize) {
+        this(MAX_FRAME_SIZE, frameSize);
+    }
+
+    /**
+     * 带参构造函数
+     *
+     * @param maxFrameSize 最大报文长度
+     */
+    public XmlMessageDecoder(int maxFrameSize) {
+        this(maxFrameSize, null);
+    }
+
+    /**
+     * 带参构造函数
+     *
+     * @param maxFrameSize 最大报文长度
+     * @param frameSize 报文长度分布
+     */
+    public XmlMessageDecoder(int maxFrameSize, DistributionSummary frameSize) {
+        this.maxFrameSize = maxFrameSize;
+        this.frameSize = frameSize;
+    }
+
+    /**
+     * 自定义解码器：每个字节只扫描一次，一次调用输出缓冲区内所有完整报文
      *
      * @param ctx 参数说明
      * @param byteBuf 参数说明
@@ -36,47 +93,44 @@ public class XmlMessageDecoder extends ByteToMessageDecoder {
      */
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> list) {
-        // 检查缓冲区大小是否超过最大帧大小
-        if (byteBuf.readableBytes() > MAX_FRAME_SIZE) {
-            byteBuf.clear();
-            throw new TooLongFrameException("Frame too large");
-        }
+        while (true) {
+            int from = byteBuf.readerIndex() + scanned;
+            int to = byteBuf.writerIndex();
+            int endIndex = from < to ? byteBuf.forEachByte(from, to - from, matcher) : -1;
+            if (endIndex == -1) {
+                scanned = byteBuf.readableBytes();
+                // 未找到结束标记且已超过最大帧大小
+                if (scanned > maxFrameSize) {
+                    discard(byteBuf);
+                    throw new TooLongFrameException("Frame too large");
+                }
+                return;
+            }
 
-        // 检查是否包含结束标记
-        int endIndex = indexOf(byteBuf, END_MARK_BYTES);
-        if (endIndex != -1) {
             // 计算完整报文的长度
-            int length = endIndex + END_MARK_BYTES.length;
-            // 提取完整报文
-            ByteBuf fullMessage = byteBuf.readRetainedSlice(length);
-            // 将完整报文添加到列表中
-            list.add(fullMessage);
-            // 丢弃已处理的数据
-            byteBuf.discardReadBytes();
+            int length = endIndex + 1 - byteBuf.readerIndex();
+            scanned = 0;
+            if (length > maxFrameSize) {
+                byteBuf.skipBytes(length);
+                throw new TooLongFrameException("Frame too large");
+            }
+            if (frameSize != null) {
+                frameSize.record(length);
+            }
+            // 提取完整报文，已读部分由 ByteToMessageDecoder 统一回收
+            list.add(byteBuf.readRetainedSlice(length));
         }
     }
 
     /**
-     * 获取指定字节数组在指定字节数组中的索引
+     * 丢弃当前未完成的报文
      *
-     * @param haystack 参数说明
-     * @param needle 参数说明
-     * @return 参数说明
+     * @param byteBuf 参数说明
      */
-    private int indexOf(ByteBuf haystack, byte[] needle) {
-        for (int i = 0; i < haystack.readableBytes() - needle.length + 1; i++) {
-            boolean match = true;
-            for (int j = 0; j < needle.length; j++) {
-                if (haystack.getByte(i + j) != needle[j]) {
-                    match = false;
-                    break;
-                }
-            }
-            if (match) {
-                return i;
-            }
-        }
-        return -1;
+    private void discard(ByteBuf byteBuf) {
+        byteBuf.skipBytes(byteBuf.readableBytes());
+        scanned = 0;
+        matcher.reset();
     }
 
     /**
@@ -1,11 +1,16 @@
 package com.atom.netpaygateway.config;
 
+import com.atom.netpaygateway.metrics.ConnectTimingHandler;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
 import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.Dsl;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Http 异步客户端配置
  *
@@ -47,14 +52,72 @@ public class AsyncHttpClientConfig {
 
     /**
      * 创建异步客户端
+     *
+     * @param metrics 网关指标
+     * @param topology Netty 线程拓扑
      */
     @Bean(destroyMethod = "close")
-    public AsyncHttpClient asyncHttpClient() {
+    public AsyncHttpClient asyncHttpClient(GatewayMetrics metrics, EventLoopTopology topology) {
+        return newClient(metrics, topology);
+    }
+
+    /**
+     * 调整客户端配置，由 {@link #newClient} 创建的新客户端生效
+     *
+     * @param connectTimeout 连接超时时间 秒，null 表示不变
+     * @param readTimeout 读取超时时间 秒，null 表示不变
+     * @param maxConnections 最大连接数，null 表示不变
+     * @param maxConnectionsPerHost 最大连接数_单节点，null 表示不变
+     */
+    public synchronized void update(Integer connectTimeout, Integer readTimeout, Integer maxConnections,
+                                    Integer maxConnectionsPerHost) {
+        if (connectTimeout != null) {
+            this.connectTimeout = connectTimeout;
+        }
+        if (readTimeout != null) {
+            this.readTimeout = readTimeout;
+        }
+        if (maxConnections != null) {
+            this.maxConnections = maxConnections;
+        }
+        if (maxConnectionsPerHost != null) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+        }
+    }
+
+    /**
+     * 客户端当前配置
+     *
+     * @return 返回值
+     */
+    public synchronized Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("connectTimeout", connectTimeout);
+        settings.put("readTimeout", readTimeout);
+        settings.put("maxConnections", maxConnections);
+        settings.put("maxConnectionsPerHost", maxConnectionsPerHost);
+        return settings;
+    }
+
+    /**
+     * 按当前配置创建异步客户端
+     *
+     * @param metrics 网关指标
+     * @param topology Netty 线程拓扑
+     * @return 返回值
+     */
+    public synchronized AsyncHttpClient newClient(GatewayMetrics metrics, EventLoopTopology topology) {
         return Dsl.asyncHttpClient(Dsl.config()
                 .setConnectTimeout(connectTimeout * 1000)
                 .setRequestTimeout(readTimeout * 1000)
                 .setMaxConnections(maxConnections)
                 .setMaxConnectionsPerHost(maxConnectionsPerHost)
-                .setPooledConnectionIdleTimeout(keepAliveTime * 1000));
+                .setPooledConnectionIdleTimeout(keepAliveTime * 1000)
+                // 与网关其它 Netty 组件共用 io 线程，传输层（epoll/NIO）随线程组确定；关闭客户端时不关闭线程组
+                .setEventLoopGroup(topology.ioGroup())
+                // 应答分片不预先拷贝，由 ByteBufResponseHandler 在回调内直接写入池化缓冲区
+                .setResponseBodyPartFactory(org.asynchttpclient.AsyncHttpClientConfig.ResponseBodyPartFactory.LAZY)
+                .setHttpAdditionalChannelInitializer(channel -> channel.pipeline()
+                        .addFirst(new ConnectTimingHandler(metrics, GatewayMetrics.BACKEND_HTTP))));
     }
 }
@@ -0,0 +1,94 @@
+package com.atom.netpaygateway.config;
+
+import com.atom.netpaygateway.limiter.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 熔断配置：Socket、Http 两个后端各一个熔断器
+ * <p>
+ * 熔断器不区分节点，已被路由摘除的节点上的失败不计入（仍有其他节点可用时），单个节点故障不会拒绝全部流量
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+@Configuration
+public class CircuitBreakerConfig {
+
+    /**
+     * 是否启用，默认 是；关闭时始终放行
+     */
+    @Value("${gateway.circuit.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 滑动窗口大小（调用数）
+     */
+    @Value("${gateway.circuit.windowSize:50}")
+    private int windowSize;
+
+    /**
+     * 计算比例所需的最少样本数
+     */
+    @Value("${gateway.circuit.minCalls:20}")
+    private int minCalls;
+
+    /**
+     * 失败率阈值
+     */
+    @Value("${gateway.circuit.failureRate:0.5}")
+    private double failureRate;
+
+    /**
+     * 慢调用耗时阈值 毫秒
+     */
+    @Value("${gateway.circuit.slowCallMillis:3000}")
+    private long slowCallMillis;
+
+    /**
+     * 慢调用率阈值
+     */
+    @Value("${gateway.circuit.slowCallRate:0.8}")
+    private double slowCallRate;
+
+    /**
+     * 打开持续时间 毫秒
+     */
+    @Value("${gateway.circuit.openMillis:10000}")
+    private long openMillis;
+
+    /**
+     * 半开状态放行的探测数
+     */
+    @Value("${gateway.circuit.halfOpenCalls:5}")
+    private int halfOpenCalls;
+
+    /**
+     * Socket 后端熔断器
+     */
+    @Bean
+    public CircuitBreaker socketCircuitBreaker() {
+        return newBreaker("socket");
+    }
+
+    /**
+     * Http 后端熔断器
+     */
+    @Bean
+    public CircuitBreaker httpCircuitBreaker() {
+        return newBreaker("http");
+    }
+
+    private CircuitBreaker newBreaker(String name) {
+        if (!enabled) {
+            return CircuitBreaker.disabled(name);
+        }
+        log.info("初始化熔断器：{}，窗口：{}，最少样本：{}，失败率：{}，慢调用：{}ms/{}，打开时间：{}ms，半开探测：{}",
+                name, windowSize, minCalls, failureRate, slowCallMillis, slowCallRate, openMillis, halfOpenCalls);
+        return new CircuitBreaker(name, windowSize, minCalls, failureRate, slowCallMillis, slowCallRate,
+                openMillis, halfOpenCalls);
+    }
+}
@@ -0,0 +1,167 @@
+package com.atom.netpaygateway.config;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.internal.ThreadExecutorMap;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty 线程拓扑：进程内唯一的一组 EventLoop，由 Socket 监听、Socket 长连接池与 Http 异步客户端共用
+ * <p>
+ * boss 线程只负责接受连接（每个监听通道一个），所有连接的读写都在 io 线程上执行，io 线程数默认等于 CPU 核数；
+ * 各组件不再各自创建线程组，避免 I/O 线程数超过 CPU 核数后相互争抢
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+public class EventLoopTopology {
+
+    /**
+     * 传输层
+     */
+    private final NettyTransport transport;
+
+    /**
+     * 是否开启 SO_REUSEPORT
+     */
+    private final boolean reusePort;
+
+    /**
+     * 监听通道数
+     */
+    private final int acceptors;
+
+    /**
+     * io 线程数
+     */
+    private final int ioThreads;
+
+    /**
+     * 接受连接线程组
+     */
+    private final EventLoopGroup bossGroup;
+
+    /**
+     * 读写线程组
+     */
+    private final EventLoopGroup ioGroup;
+
+    /**
+     * 带参构造函数
+     *
+     * @param transport 传输层
+     * @param ioThreads io 线程数，不大于 0 时取 CPU 核数
+     * @param reusePort 是否开启 SO_REUSEPORT（仅 epoll）
+     * @param acceptors 监听通道数（SO_REUSEPORT 开启时生效）
+     */
+    public EventLoopTopology(NettyTransport transport, int ioThreads, boolean reusePort, int acceptors) {
+        this.transport = transport;
+        this.reusePort = reusePort && transport.supportsReusePort();
+        if (reusePort && !this.reusePort) {
+            log.warn("当前传输层：{} 不支持 SO_REUSEPORT，使用单个监听通道", transport.name());
+        }
+        this.acceptors = this.reusePort ? Math.max(1, acceptors) : 1;
+        this.ioThreads = ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors();
+        // 每个监听通道注册到独立的 boss 线程
+        this.bossGroup = transport.newEventLoopGroup(this.acceptors,
+                new DefaultThreadFactory("netty-boss", true));
+        this.ioGroup = transport.newEventLoopGroup(this.ioThreads,
+                new DefaultThreadFactory("netty-io", true));
+        log.info("Netty 线程拓扑：传输层：{}，boss线程数：{}，io线程数：{}", transport.name(), this.acceptors, this.ioThreads);
+    }
+
+    /**
+     * 传输层
+     *
+     * @return 返回值
+     */
+    public NettyTransport transport() {
+        return transport;
+    }
+
+    /**
+     * 是否开启 SO_REUSEPORT
+     *
+     * @return 返回值
+     */
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    /**
+     * 监听通道数
+     *
+     * @return 返回值
+     */
+    public int acceptors() {
+        return acceptors;
+    }
+
+    /**
+     * io 线程数
+     *
+     * @return 返回值
+     */
+    public int ioThreads() {
+        return ioThreads;
+    }
+
+    /**
+     * 接受连接线程组
+     *
+     * @return 返回值
+     */
+    public EventLoopGroup bossGroup() {
+        return bossGroup;
+    }
+
+    /**
+     * 读写线程组
+     *
+     * @return 返回值
+     */
+    public EventLoopGroup ioGroup() {
+        return ioGroup;
+    }
+
+    /**
+     * 当前线程所在的 io EventLoop；调用线程不是 io 线程时轮询选择一个
+     * <p>
+     * 入站连接上发起的出站调用据此绑定到同一 EventLoop，回调无需跨线程投递
+     *
+     * @return 返回值
+     */
+    public EventLoop current() {
+        EventExecutor executor = ThreadExecutorMap.currentExecutor();
+        if (executor != null && executor.parent() == ioGroup) {
+            return (EventLoop) executor;
+        }
+        return ioGroup.next();
+    }
+
+    /**
+     * 是否已关闭
+     *
+     * @return 返回值
+     */
+    public boolean isShuttingDown() {
+        return ioGroup.isShuttingDown();
+    }
+
+    /**
+     * 关闭所有线程组，等待存量任务完成
+     */
+    public void shutdown() {
+        // 停止接收新任务：静默期0秒，最多2秒完成存量任务
+        bossGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+        ioGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+        bossGroup.terminationFuture().syncUninterruptibly();
+        ioGroup.terminationFuture().syncUninterruptibly();
+        log.info("Netty 线程拓扑已关闭");
+    }
+}
@@ -0,0 +1,77 @@
+package com.atom.netpaygateway.config;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Http 同步客户端配置（Feign 传输层），连接数与超时与异步客户端共用同一组配置
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Configuration
+public class FeignHttpClientConfig {
+
+    /**
+     * 连接超时时间 秒
+     */
+    @Value("${gateway.forward.http.connectTimeout}")
+    private Integer connectTimeout;
+
+    /**
+     * 读取超时时间 秒
+     */
+    @Value("${gateway.forward.http.readTimeout}")
+    private Integer readTimeout;
+
+    /**
+     * 最大连接数
+     */
+    @Value("${gateway.forward.http.maxConnections}")
+    private Integer maxConnections;
+
+    /**
+     * 最大连接数_单节点
+     */
+    @Value("${gateway.forward.http.maxConnectionsPerHost}")
+    private Integer maxConnectionsPerHost;
+
+    /**
+     * 空闲进程销毁时间
+     */
+    @Value("${gateway.forward.http.keepAliveTime}")
+    private Integer keepAliveTime;
+
+    /**
+     * 创建池化长连接客户端
+     * <p>
+     * 关闭自动重试，是否重发由 Feign 的 canResend 配置决定，避免支付报文被传输层重复发送
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient feignHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                keepAliveTime, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        // 空闲超过 2 秒的连接复用前先校验，避免使用已被对端关闭的连接
+        connectionManager.setValidateAfterInactivity(2000);
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeout * 1000)
+                        .setConnectionRequestTimeout(connectTimeout * 1000)
+                        .setSocketTimeout(readTimeout * 1000)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveTime, TimeUnit.SECONDS)
+                .disableAutomaticRetries()
+                .build();
+    }
+}
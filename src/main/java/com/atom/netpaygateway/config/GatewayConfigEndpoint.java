@@ -0,0 +1,355 @@
+package com.atom.netpaygateway.config;
+
+import com.atom.netpaygateway.client.HttpClientNetty;
+import com.atom.netpaygateway.client.HttpClientSingle;
+import com.atom.netpaygateway.client.SocketChannelPool;
+import com.atom.netpaygateway.client.SocketClientNetty;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.route.Backend;
+import com.atom.netpaygateway.route.Router;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 运行时配置端点（/actuator/gatewayconfig）：查看与调整后端节点、超时、连接池与线程池配置，无需重启
+ * <p>
+ * 各组件以整体替换的方式生效：路由表、Socket连接池、Http异步客户端替换后新请求使用新配置，
+ * 已发出的请求在原连接/原客户端上完成；Socket监听通道不受影响，不会断开入站连接。
+ * 请求参数先全部校验，任一不合法时不做任何调整。
+ * 端点本身不做鉴权，默认不在 management.endpoints.web.exposure 中暴露，仅在绑定本机的监控端口上开启
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+@Component
+@Endpoint(id = "gatewayconfig")
+public class GatewayConfigEndpoint {
+
+    /**
+     * Socket 长连接路由
+     */
+    private final Router<InetSocketAddress> socketRouter;
+
+    /**
+     * Socket 短连接路由
+     */
+    private final Router<InetSocketAddress> socketShortRouter;
+
+    /**
+     * Http 路由
+     */
+    private final Router<String> httpRouter;
+
+    /**
+     * Socket 长连接池
+     */
+    private final SocketChannelPool socketChannelPool;
+
+    /**
+     * Netty Socket 客户端
+     */
+    private final SocketClientNetty socketClientNetty;
+
+    /**
+     * Http 异步客户端配置
+     */
+    private final AsyncHttpClientConfig asyncHttpClientConfig;
+
+    /**
+     * Netty Http 客户端
+     */
+    private final HttpClientNetty httpClientNetty;
+
+    /**
+     * 单笔 Http 客户端
+     */
+    private final HttpClientSingle httpClientSingle;
+
+    /**
+     * Http 线程池
+     */
+    private final TaskExecutor httpExecutor;
+
+    /**
+     * Socket 线程池
+     */
+    private final TaskExecutor socketExecutor;
+
+    /**
+     * 网关指标
+     */
+    private final GatewayMetrics metrics;
+
+    /**
+     * Netty 线程拓扑
+     */
+    private final EventLoopTopology topology;
+
+    /**
+     * 路由节点指标
+     */
+    private final MeterBinder routerMetrics;
+
+    /**
+     * 带参构造函数
+     *
+     * @param socketRouter Socket 长连接路由
+     * @param socketShortRouter Socket 短连接路由
+     * @param httpRouter Http 路由
+     * @param socketChannelPool Socket 长连接池
+     * @param socketClientNetty Netty Socket 客户端
+     * @param asyncHttpClientConfig Http 异步客户端配置
+     * @param httpClientNetty Netty Http 客户端
+     * @param httpClientSingle 单笔 Http 客户端
+     * @param httpExecutor Http 线程池
+     * @param socketExecutor Socket 线程池
+     * @param metrics 网关指标
+     * @param topology Netty 线程拓扑
+     * @param routerMetrics 路由节点指标
+     */
+    public GatewayConfigEndpoint(@Qualifier("socketRouter") Router<InetSocketAddress> socketRouter,
+                                 @Qualifier("socketShortRouter") Router<InetSocketAddress> socketShortRouter,
+                                 @Qualifier("httpRouter") Router<String> httpRouter,
+                                 SocketChannelPool socketChannelPool, SocketClientNetty socketClientNetty,
+                                 AsyncHttpClientConfig asyncHttpClientConfig, HttpClientNetty httpClientNetty,
+                                 HttpClientSingle httpClientSingle,
+                                 @Qualifier("httpThreadPoolExecutor") TaskExecutor httpExecutor,
+                                 @Qualifier("socketThreadPoolExecutor") TaskExecutor socketExecutor,
+                                 GatewayMetrics metrics, EventLoopTopology topology,
+                                 @Qualifier("routerMetrics") MeterBinder routerMetrics) {
+        this.socketRouter = socketRouter;
+        this.socketShortRouter = socketShortRouter;
+        this.httpRouter = httpRouter;
+        this.socketChannelPool = socketChannelPool;
+        this.socketClientNetty = socketClientNetty;
+        this.asyncHttpClientConfig = asyncHttpClientConfig;
+        this.httpClientNetty = httpClientNetty;
+        this.httpClientSingle = httpClientSingle;
+        this.httpExecutor = httpExecutor;
+        this.socketExecutor = socketExecutor;
+        this.metrics = metrics;
+        this.topology = topology;
+        this.routerMetrics = routerMetrics;
+    }
+
+    /**
+     * 当前配置
+     *
+     * @return 返回值
+     */
+    @ReadOperation
+    public Map<String, Object> settings() {
+        Map<String, Object> routes = new LinkedHashMap<>();
+        routes.put("socketBackends", targets(socketRouter));
+        routes.put("socketShortBackends", targets(socketShortRouter));
+        routes.put("httpBackends", targets(httpRouter));
+
+        Map<String, Object> socket = new LinkedHashMap<>(socketChannelPool.settings());
+        socket.put("readTimeout", socketClientNetty.getReadTimeout());
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("routes", routes);
+        settings.put("socket", socket);
+        settings.put("http", asyncHttpClientConfig.settings());
+        settings.put("httpExecutor", executorSettings(httpExecutor));
+        settings.put("socketExecutor", executorSettings(socketExecutor));
+        return settings;
+    }
+
+    /**
+     * 调整配置，未传的参数保持不变
+     *
+     * @param socketBackends Socket 长连接后端地址 host:port，逗号分隔
+     * @param socketShortBackends Socket 短连接后端地址 host:port，逗号分隔
+     * @param httpBackends Http 后端 URL，逗号分隔
+     * @param socketReadTimeout Socket 应答超时时间 毫秒
+     * @param socketConnectTimeout Socket 连接超时时间 毫秒
+     * @param socketMaxConnections Socket 单节点最大连接数
+     * @param socketMaxPendingAcquires Socket 获取连接最大排队数
+     * @param socketAcquireTimeout Socket 获取连接超时时间 毫秒
+     * @param httpConnectTimeout Http 连接超时时间 秒
+     * @param httpReadTimeout Http 读取超时时间 秒
+     * @param httpMaxConnections Http 最大连接数
+     * @param httpMaxConnectionsPerHost Http 单节点最大连接数
+     * @param httpCoreSize Http 线程池核心线程数
+     * @param httpMaxSize Http 线程池最大线程数
+     * @param socketCoreSize Socket 线程池核心线程数
+     * @param socketMaxSize Socket 线程池最大线程数
+     * @return 调整后的配置
+     */
+    @WriteOperation
+    public synchronized Map<String, Object> update(@Nullable String socketBackends,
+                                                   @Nullable String socketShortBackends,
+                                                   @Nullable String httpBackends,
+                                                   @Nullable Long socketReadTimeout,
+                                                   @Nullable Integer socketConnectTimeout,
+                                                   @Nullable Integer socketMaxConnections,
+                                                   @Nullable Integer socketMaxPendingAcquires,
+                                                   @Nullable Long socketAcquireTimeout,
+                                                   @Nullable Integer httpConnectTimeout,
+                                                   @Nullable Integer httpReadTimeout,
+                                                   @Nullable Integer httpMaxConnections,
+                                                   @Nullable Integer httpMaxConnectionsPerHost,
+                                                   @Nullable Integer httpCoreSize,
+                                                   @Nullable Integer httpMaxSize,
+                                                   @Nullable Integer socketCoreSize,
+                                                   @Nullable Integer socketMaxSize) {
+        // 校验
+        List<InetSocketAddress> socketTargets = parse(socketBackends, RouterConfig::parseAddress);
+        List<InetSocketAddress> socketShortTargets = parse(socketShortBackends, RouterConfig::parseAddress);
+        List<String> httpTargets = parse(httpBackends, Function.identity());
+        positive("socketReadTimeout", socketReadTimeout);
+        positive("socketConnectTimeout", socketConnectTimeout);
+        positive("socketMaxConnections", socketMaxConnections);
+        positive("socketMaxPendingAcquires", socketMaxPendingAcquires);
+        positive("socketAcquireTimeout", socketAcquireTimeout);
+        positive("httpConnectTimeout", httpConnectTimeout);
+        positive("httpReadTimeout", httpReadTimeout);
+        positive("httpMaxConnections", httpMaxConnections);
+        positive("httpMaxConnectionsPerHost", httpMaxConnectionsPerHost);
+        ThreadPoolTaskExecutor httpPool = resizable("httpExecutor", httpExecutor, httpCoreSize, httpMaxSize);
+        ThreadPoolTaskExecutor socketPool = resizable("socketExecutor", socketExecutor, socketCoreSize,
+                socketMaxSize);
+
+        // 路由表
+        if (socketTargets != null) {
+            socketRouter.update(socketTargets);
+        }
+        if (socketShortTargets != null) {
+            socketShortRouter.update(socketShortTargets);
+        }
+        if (httpTargets != null) {
+            httpRouter.update(httpTargets);
+        }
+        if (socketTargets != null || socketShortTargets != null || httpTargets != null) {
+            // 为新增节点登记指标，已登记的指标不重复登记
+            routerMetrics.bindTo(metrics.registry());
+        }
+
+        // Socket 长连接
+        if (socketReadTimeout != null) {
+            socketClientNetty.setReadTimeout(socketReadTimeout);
+        }
+        if (socketConnectTimeout != null || socketMaxConnections != null || socketMaxPendingAcquires != null
+                || socketAcquireTimeout != null) {
+            socketChannelPool.reconfigure(socketConnectTimeout, socketMaxConnections, socketMaxPendingAcquires,
+                    socketAcquireTimeout);
+        }
+
+        // Http 客户端
+        if (httpConnectTimeout != null || httpReadTimeout != null || httpMaxConnections != null
+                || httpMaxConnectionsPerHost != null) {
+            asyncHttpClientConfig.update(httpConnectTimeout, httpReadTimeout, httpMaxConnections,
+                    httpMaxConnectionsPerHost);
+            httpClientNetty.reconfigure(asyncHttpClientConfig.newClient(metrics, topology), httpConnectTimeout);
+        }
+        if (httpConnectTimeout != null || httpReadTimeout != null) {
+            httpClientSingle.reconfigure(httpConnectTimeout, httpReadTimeout);
+        }
+
+        // 线程池
+        resize(httpPool, httpCoreSize, httpMaxSize);
+        resize(socketPool, socketCoreSize, socketMaxSize);
+
+        Map<String, Object> settings = settings();
+        log.info("运行时配置已调整：{}", settings);
+        return settings;
+    }
+
+    private static List<String> targets(Router<?> router) {
+        return router.getBackends().stream().map(Backend::toString).collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> executorSettings(TaskExecutor executor) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        if (executor instanceof ThreadPoolTaskExecutor) {
+            ThreadPoolTaskExecutor pool = (ThreadPoolTaskExecutor) executor;
+            settings.put("coreSize", pool.getCorePoolSize());
+            settings.put("maxSize", pool.getMaxPoolSize());
+        } else {
+            settings.put("mode", "virtual");
+        }
+        return settings;
+    }
+
+    private static <T> List<T> parse(String targets, Function<String, T> parser) {
+        if (targets == null) {
+            return null;
+        }
+        try {
+            List<T> parsed = Router.parse(Arrays.asList(targets.split(",")), parser);
+            if (parsed.isEmpty()) {
+                throw new IllegalArgumentException("no backend configured");
+            }
+            return parsed;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("后端地址不合法：" + targets, e.getMessage());
+        }
+    }
+
+    private static void positive(String name, Number value) {
+        if (value != null && value.longValue() <= 0) {
+            throw new InvalidEndpointRequestException(name + " 必须大于 0", name + " must be positive");
+        }
+    }
+
+    /**
+     * 校验线程池调整参数
+     *
+     * @return 无需调整时返回 null
+     */
+    private static ThreadPoolTaskExecutor resizable(String name, TaskExecutor executor, Integer coreSize,
+                                                    Integer maxSize) {
+        if (coreSize == null && maxSize == null) {
+            return null;
+        }
+        if (!(executor instanceof ThreadPoolTaskExecutor)) {
+            throw new InvalidEndpointRequestException(name + " 为虚拟线程模式，不支持调整线程数",
+                    name + " is not a thread pool");
+        }
+        ThreadPoolTaskExecutor pool = (ThreadPoolTaskExecutor) executor;
+        int core = coreSize != null ? coreSize : pool.getCorePoolSize();
+        int max = maxSize != null ? maxSize : pool.getMaxPoolSize();
+        if (core < 0 || max <= 0 || core > max) {
+            throw new InvalidEndpointRequestException(name + " 线程数不合法：" + core + "/" + max,
+                    name + " invalid pool size");
+        }
+        return pool;
+    }
+
+    /**
+     * 调整线程数：扩容先调最大线程数，缩容先调核心线程数，保证任一时刻核心线程数不大于最大线程数
+     */
+    private static void resize(ThreadPoolTaskExecutor pool, Integer coreSize, Integer maxSize) {
+        if (pool == null) {
+            return;
+        }
+        int core = coreSize != null ? coreSize : pool.getCorePoolSize();
+        int max = maxSize != null ? maxSize : pool.getMaxPoolSize();
+        if (max >= pool.getMaxPoolSize()) {
+            pool.setMaxPoolSize(max);
+            pool.setCorePoolSize(core);
+        } else {
+            pool.setCorePoolSize(core);
+            pool.setMaxPoolSize(max);
+        }
+    }
+}
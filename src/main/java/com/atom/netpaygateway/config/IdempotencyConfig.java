@@ -0,0 +1,82 @@
+package com.atom.netpaygateway.config;
+
+import com.atom.netpaygateway.cache.IdempotencyCache;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 幂等缓存配置：Http -> Socket、Socket -> Http 两个方向各一个应答缓存
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * 是否启用，默认 否
+     */
+    @Value("${gateway.idempotency.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 报文标识所在的元素
+     */
+    @Value("${gateway.idempotency.keyElement:MsgId}")
+    private String keyElement;
+
+    /**
+     * 最大条数
+     */
+    @Value("${gateway.idempotency.maxSize:10000}")
+    private long maxSize;
+
+    /**
+     * 应答缓存时间 秒
+     */
+    @Value("${gateway.idempotency.ttl:60}")
+    private long ttl;
+
+    /**
+     * 应答超过该字符数时以堆外内存保存，0 表示不使用堆外内存
+     */
+    @Value("${gateway.idempotency.offHeapThreshold:0}")
+    private int offHeapThreshold;
+
+    /**
+     * Http -> Socket 幂等缓存
+     *
+     * @param metrics 网关指标
+     * @return 返回值
+     */
+    @Bean
+    public IdempotencyCache httpToSocketIdempotency(GatewayMetrics metrics) {
+        return newCache("http-to-socket", metrics);
+    }
+
+    /**
+     * Socket -> Http 幂等缓存
+     *
+     * @param metrics 网关指标
+     * @return 返回值
+     */
+    @Bean
+    public IdempotencyCache socketToHttpIdempotency(GatewayMetrics metrics) {
+        return newCache("socket-to-http", metrics);
+    }
+
+    private IdempotencyCache newCache(String name, GatewayMetrics metrics) {
+        if (enabled) {
+            log.info("初始化幂等缓存：{}，报文标识：{}，最大条数：{}，缓存时间：{}秒，堆外阈值：{}",
+                    name, keyElement, maxSize, ttl, offHeapThreshold);
+        }
+        return new IdempotencyCache(name, enabled, keyElement, maxSize, Duration.ofSeconds(ttl), offHeapThreshold,
+                metrics);
+    }
+}
@@ -0,0 +1,86 @@
+package com.atom.netpaygateway.config;
+
+import com.atom.netpaygateway.limiter.AdaptiveLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 准入控制配置：Http -> Socket、Socket -> Http 两个方向各一个自适应并发限制
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+@Configuration
+public class LimiterConfig {
+
+    /**
+     * 是否启用，默认 否；关闭时上限不受限
+     */
+    @Value("${gateway.limiter.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 初始上限
+     */
+    @Value("${gateway.limiter.initialLimit:100}")
+    private int initialLimit;
+
+    /**
+     * 上限下界
+     */
+    @Value("${gateway.limiter.minLimit:10}")
+    private int minLimit;
+
+    /**
+     * 上限上界
+     */
+    @Value("${gateway.limiter.maxLimit:2000}")
+    private int maxLimit;
+
+    /**
+     * 乘性减系数
+     */
+    @Value("${gateway.limiter.backoffRatio:0.9}")
+    private double backoffRatio;
+
+    /**
+     * 时延容忍倍数，超过基线时延该倍数视为拥塞
+     */
+    @Value("${gateway.limiter.tolerance:2.0}")
+    private double tolerance;
+
+    /**
+     * 基线时延统计窗口（样本数）
+     */
+    @Value("${gateway.limiter.windowSize:100}")
+    private int windowSize;
+
+    /**
+     * Http -> Socket 限流器
+     */
+    @Bean
+    public AdaptiveLimiter httpToSocketLimiter() {
+        return newLimiter("http-to-socket");
+    }
+
+    /**
+     * Socket -> Http 限流器
+     */
+    @Bean
+    public AdaptiveLimiter socketToHttpLimiter() {
+        return newLimiter("socket-to-http");
+    }
+
+    private AdaptiveLimiter newLimiter(String name) {
+        if (!enabled) {
+            return new AdaptiveLimiter(name, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                    backoffRatio, tolerance, windowSize);
+        }
+        log.info("初始化限流器：{}，初始上限：{}，上下界：[{}, {}]，减小系数：{}，时延容忍倍数：{}",
+                name, initialLimit, minLimit, maxLimit, backoffRatio, tolerance);
+        return new AdaptiveLimiter(name, initialLimit, minLimit, maxLimit, backoffRatio, tolerance, windowSize);
+    }
+}
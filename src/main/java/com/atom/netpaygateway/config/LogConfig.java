@@ -0,0 +1,54 @@
+package com.atom.netpaygateway.config;
+
+import com.atom.netpaygateway.utils.LogUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 报文日志配置
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+@Configuration
+public class LogConfig {
+
+    /**
+     * 采样比例，(0, 1]，1 表示全部记录
+     */
+    @Value("${gateway.log.payload.sampleRate:1.0}")
+    private double sampleRate;
+
+    /**
+     * 报文最多记录的字符数
+     */
+    @Value("${gateway.log.payload.maxLength:2048}")
+    private int maxLength;
+
+    /**
+     * 需脱敏的元素名，逗号分隔
+     */
+    @Value("${gateway.log.payload.maskFields:}")
+    private String maskFields;
+
+    /**
+     * 初始化报文日志
+     */
+    @PostConstruct
+    public void init() {
+        Set<String> fields = Arrays.stream(maskFields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        LogUtils.configure(sampleRate, maxLength, fields);
+        log.info("初始化报文日志：采样比例：{}，最大长度：{}，脱敏字段：{}", sampleRate, maxLength, fields);
+    }
+}
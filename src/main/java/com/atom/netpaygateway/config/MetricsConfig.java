@@ -0,0 +1,103 @@
+package com.atom.netpaygateway.config;
+
+import com.atom.netpaygateway.client.VirtualThreadTaskExecutor;
+import com.atom.netpaygateway.limiter.CircuitBreaker;
+import com.atom.netpaygateway.limiter.AdaptiveLimiter;
+import com.atom.netpaygateway.route.Router;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.Map;
+
+/**
+ * 指标配置：限流器、熔断器、路由节点与虚拟线程执行器的状态指标
+ * <p>
+ * 平台线程池（ThreadPoolTaskExecutor）的活跃线程数/队列深度由 Spring Boot 以 executor.* 指标自动登记
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 限流器当前上限与在途请求数
+     *
+     * @param limiters 限流器
+     * @return 返回值
+     */
+    @Bean
+    public MeterBinder limiterMetrics(Map<String, AdaptiveLimiter> limiters) {
+        return registry -> limiters.values().forEach(limiter -> {
+            Gauge.builder("gateway.limiter.limit", limiter, AdaptiveLimiter::getLimit)
+                    .description("并发上限")
+                    .tag("name", limiter.getName())
+                    .register(registry);
+            Gauge.builder("gateway.limiter.inflight", limiter, AdaptiveLimiter::getInFlight)
+                    .description("在途请求数")
+                    .tag("name", limiter.getName())
+                    .register(registry);
+        });
+    }
+
+    /**
+     * 熔断器状态（0-关闭，1-打开，2-半开）
+     *
+     * @param breakers 熔断器
+     * @return 返回值
+     */
+    @Bean
+    public MeterBinder circuitBreakerMetrics(Map<String, CircuitBreaker> breakers) {
+        return registry -> breakers.values().forEach(breaker ->
+                Gauge.builder("gateway.circuit.state", breaker, b -> b.getState().ordinal())
+                        .description("熔断器状态：0-关闭，1-打开，2-半开")
+                        .tag("name", breaker.getName())
+                        .register(registry));
+    }
+
+    /**
+     * 路由节点在途请求数、耗时 EWMA 与摘除状态
+     *
+     * @param routers 路由
+     * @return 返回值
+     */
+    @Bean
+    public MeterBinder routerMetrics(Map<String, Router<?>> routers) {
+        return registry -> routers.values().forEach(router -> router.getBackends().forEach(backend -> {
+            Gauge.builder("gateway.route.outstanding", backend, b -> b.getOutstanding())
+                    .description("节点在途请求数")
+                    .tags("name", router.getName(), "backend", backend.toString())
+                    .register(registry);
+            Gauge.builder("gateway.route.latency", backend, b -> b.getLatencyEwma() / 1_000_000_000d)
+                    .description("节点耗时 EWMA 秒")
+                    .tags("name", router.getName(), "backend", backend.toString())
+                    .register(registry);
+            Gauge.builder("gateway.route.ejected", backend, b -> b.isEjected() ? 1 : 0)
+                    .description("节点是否处于摘除期")
+                    .tags("name", router.getName(), "backend", backend.toString())
+                    .register(registry);
+        }));
+    }
+
+    /**
+     * 虚拟线程执行器已提交未完成任务数
+     *
+     * @param executors 执行器
+     * @return 返回值
+     */
+    @Bean
+    public MeterBinder virtualExecutorMetrics(Map<String, TaskExecutor> executors) {
+        return registry -> executors.forEach((name, executor) -> {
+            if (executor instanceof VirtualThreadTaskExecutor) {
+                Gauge.builder("gateway.executor.pending", (VirtualThreadTaskExecutor) executor,
+                                VirtualThreadTaskExecutor::getPendingCount)
+                        .description("虚拟线程执行器已提交未完成任务数")
+                        .tag("name", name)
+                        .register(registry);
+            }
+        });
+    }
+}
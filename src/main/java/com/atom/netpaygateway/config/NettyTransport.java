@@ -0,0 +1,175 @@
+package com.atom.netpaygateway.config;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Netty 传输层选择：Linux 上优先使用 epoll 原生传输，不可用时回退 NIO
+ * <p>
+ * 所有 EventLoopGroup 与通道类型统一经此创建，保证同一进程内的客户端/服务端使用同一种传输；
+ * epoll 下额外支持 SO_REUSEPORT（多个监听通道由内核分发连接）与 TCP_QUICKACK
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+public final class NettyTransport {
+
+    /**
+     * 自动选择：epoll 可用时使用 epoll，否则 NIO
+     */
+    public static final String AUTO = "auto";
+
+    /**
+     * epoll 原生传输
+     */
+    public static final String EPOLL = "epoll";
+
+    /**
+     * JDK NIO 传输
+     */
+    public static final String NIO = "nio";
+
+    /**
+     * io_uring 传输（需 netty-incubator-transport-io_uring，当前未引入，按 auto 处理）
+     */
+    public static final String IO_URING = "io_uring";
+
+    /**
+     * 是否使用 epoll
+     */
+    private final boolean epoll;
+
+    private NettyTransport(boolean epoll) {
+        this.epoll = epoll;
+    }
+
+    /**
+     * 按配置选择传输层
+     *
+     * @param preferred auto/epoll/nio/io_uring
+     * @return 返回值
+     */
+    public static NettyTransport select(String preferred) {
+        String mode = preferred == null ? AUTO : preferred.trim().toLowerCase();
+        if (NIO.equals(mode)) {
+            return new NettyTransport(false);
+        }
+        if (IO_URING.equals(mode)) {
+            log.warn("io_uring 传输未引入，按 {} 处理", AUTO);
+        } else if (!AUTO.equals(mode) && !EPOLL.equals(mode)) {
+            log.warn("未知的 Netty 传输：{}，按 {} 处理", preferred, AUTO);
+        }
+        if (Epoll.isAvailable()) {
+            return new NettyTransport(true);
+        }
+        if (EPOLL.equals(mode)) {
+            log.warn("epoll 不可用，回退 NIO：{}", Epoll.unavailabilityCause().getMessage());
+        }
+        return new NettyTransport(false);
+    }
+
+    /**
+     * 传输层名称
+     *
+     * @return 返回值
+     */
+    public String name() {
+        return epoll ? EPOLL : NIO;
+    }
+
+    /**
+     * 是否使用 epoll
+     *
+     * @return 返回值
+     */
+    public boolean isEpoll() {
+        return epoll;
+    }
+
+    /**
+     * 是否支持 SO_REUSEPORT
+     *
+     * @return 返回值
+     */
+    public boolean supportsReusePort() {
+        return epoll;
+    }
+
+    /**
+     * 创建 EventLoopGroup
+     *
+     * @param threads 线程数
+     * @param threadFactory 线程工厂
+     * @return 返回值
+     */
+    public EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+        return epoll ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    /**
+     * 客户端通道类型
+     *
+     * @return 返回值
+     */
+    public Class<? extends SocketChannel> socketChannelClass() {
+        return epoll ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    /**
+     * 服务端通道类型
+     *
+     * @return 返回值
+     */
+    public Class<? extends ServerSocketChannel> serverSocketChannelClass() {
+        return epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    /**
+     * 客户端通道类型与 epoll 专有参数
+     *
+     * @param bootstrap 客户端启动器
+     * @param tcpQuickAck 是否开启 TCP_QUICKACK（立即回复 ACK，不等待捎带）
+     * @return 返回值
+     */
+    public Bootstrap configure(Bootstrap bootstrap, boolean tcpQuickAck) {
+        bootstrap.channel(socketChannelClass());
+        if (epoll && tcpQuickAck) {
+            bootstrap.option(EpollChannelOption.TCP_QUICKACK, true);
+        }
+        return bootstrap;
+    }
+
+    /**
+     * 服务端通道类型与 epoll 专有参数
+     *
+     * @param bootstrap 服务端启动器
+     * @param reusePort 是否开启 SO_REUSEPORT（允许多个监听通道绑定同一端口）
+     * @param tcpQuickAck 是否开启 TCP_QUICKACK
+     * @return 返回值
+     */
+    public ServerBootstrap configure(ServerBootstrap bootstrap, boolean reusePort, boolean tcpQuickAck) {
+        bootstrap.channel(serverSocketChannelClass());
+        if (epoll && reusePort) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+        if (epoll && tcpQuickAck) {
+            bootstrap.childOption(EpollChannelOption.TCP_QUICKACK, true);
+        }
+        return bootstrap;
+    }
+}
@@ -14,6 +14,18 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class PoolConfig {
 
+    /**
+     * 执行模式：platform-平台线程池，virtual-虚拟线程（需 JDK 21 及以上，否则回退平台线程池）
+     */
+    @Value("${threadPool.mode:platform}")
+    private String mode;
+
+    /**
+     * 虚拟线程模式最大等待任务数（超过最大并发后排队的任务数）
+     */
+    @Value("${threadPool.virtual.maxWaiting:10000}")
+    private Integer virtualMaxWaiting;
+
     /**
      * 核心线程数-Http
      */
@@ -50,6 +62,12 @@ public class PoolConfig {
     @Value("${threadPool.http.AwaitTerminationSeconds:30}")
     private Integer httpPoolAwaitTerminationSeconds;
 
+    /**
+     * 虚拟线程模式最大并发数-Http
+     */
+    @Value("${threadPool.http.maxConcurrency:10000}")
+    private Integer httpPoolMaxConcurrency;
+
     /**
      * 核心线程数-Socket
      */
@@ -85,4 +103,10 @@ public class PoolConfig {
      */
     @Value("${threadPool.socket.AwaitTerminationSeconds:30}")
     private Integer socketPoolAwaitTerminationSeconds;
+
+    /**
+     * 虚拟线程模式最大并发数-Socket
+     */
+    @Value("${threadPool.socket.maxConcurrency:10000}")
+    private Integer socketPoolMaxConcurrency;
 }
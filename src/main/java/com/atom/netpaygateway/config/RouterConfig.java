@@ -0,0 +1,102 @@
+package com.atom.netpaygateway.config;
+
+import com.atom.netpaygateway.route.Router;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * 多后端路由配置：Socket 长连接、Socket 短连接、Http 各一个路由
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Configuration
+public class RouterConfig {
+
+    /**
+     * 策略：p2c（两次随机选择）、least（最小代价）
+     */
+    @Value("${gateway.route.strategy:p2c}")
+    private String strategy;
+
+    /**
+     * 耗时/错误率 EWMA 时间常数 毫秒
+     */
+    @Value("${gateway.route.decayMillis:10000}")
+    private long decayMillis;
+
+    /**
+     * 失败请求计入的最小耗时 毫秒
+     */
+    @Value("${gateway.route.failurePenaltyMillis:1000}")
+    private long failurePenaltyMillis;
+
+    /**
+     * 连续失败后的摘除时长 毫秒，0 表示不摘除
+     */
+    @Value("${gateway.route.ejectMillis:5000}")
+    private long ejectMillis;
+
+    /**
+     * Socket 长连接（Netty）后端地址 host:port，逗号分隔
+     */
+    @Value("${gateway.forward.socket.backends:127.0.0.1:8081}")
+    private List<String> socketBackends;
+
+    /**
+     * Socket 短连接（单笔）后端地址 host:port，逗号分隔
+     */
+    @Value("${gateway.forward.socket.shortBackends:127.0.0.1:12345}")
+    private List<String> socketShortBackends;
+
+    /**
+     * Http 后端 URL，逗号分隔，默认 gateway.forward.http.url
+     */
+    @Value("${gateway.forward.http.backends:${gateway.forward.http.url}}")
+    private List<String> httpBackends;
+
+    /**
+     * Socket 长连接路由
+     */
+    @Bean
+    public Router<InetSocketAddress> socketRouter() {
+        return Router.of("socket", socketBackends, RouterConfig::parseAddress, strategy, decayMillis,
+                failurePenaltyMillis, ejectMillis);
+    }
+
+    /**
+     * Socket 短连接路由
+     */
+    @Bean
+    public Router<InetSocketAddress> socketShortRouter() {
+        return Router.of("socketShort", socketShortBackends, RouterConfig::parseAddress, strategy, decayMillis,
+                failurePenaltyMillis, ejectMillis);
+    }
+
+    /**
+     * Http 路由
+     */
+    @Bean
+    public Router<String> httpRouter() {
+        return Router.of("http", httpBackends, url -> url, strategy, decayMillis, failurePenaltyMillis,
+                ejectMillis);
+    }
+
+    /**
+     * 解析 host:port
+     *
+     * @param address 地址
+     * @return 返回值
+     */
+    public static InetSocketAddress parseAddress(String address) {
+        int index = address.lastIndexOf(':');
+        if (index <= 0 || index == address.length() - 1) {
+            throw new IllegalArgumentException("invalid backend address: " + address);
+        }
+        return new InetSocketAddress(address.substring(0, index), Integer.parseInt(address.substring(index + 1)));
+    }
+}
@@ -1,41 +1,145 @@
 package com.atom.netpaygateway.config;
 
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.util.concurrent.DefaultThreadFactory;
+import com.atom.netpaygateway.codec.FramingStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
  * Socket连接池/Netty配置
  *
  * @author Tom
  * @date 7/3/2025
  */
+@Slf4j
 @Configuration
 public class SocketConfig {
 
     /**
-     * netty Socket 客户端注入
+     * Netty 传输层：auto-epoll 可用时使用 epoll，否则 NIO；epoll；nio
+     */
+    @Value("${gateway.netty.transport:auto}")
+    private String transport;
+
+    /**
+     * io 线程数，0 表示取 CPU 核数
+     */
+    @Value("${gateway.netty.ioThreads:0}")
+    private int ioThreads;
+
+    /**
+     * 是否开启 SO_REUSEPORT（仅 epoll）
+     */
+    @Value("${gateway.listen.socket.netty.reusePort:false}")
+    private boolean reusePort;
+
+    /**
+     * 监听通道数（SO_REUSEPORT 开启时生效）
+     */
+    @Value("${gateway.listen.socket.netty.acceptors:1}")
+    private int acceptors;
+
+    /**
+     * 单笔报文最大长度 字节
+     */
+    @Value("${gateway.listen.socket.maxFrameSize:4194304}")
+    private int maxFrameSize;
+
+    /**
+     * Socket Netty 监听分帧方式：delimiter/length
+     */
+    @Value("${gateway.listen.socket.netty.framing.mode:delimiter}")
+    private String listenerFramingMode;
+
+    /**
+     * Socket Netty 监听长度头格式：binary/ascii
+     */
+    @Value("${gateway.listen.socket.netty.framing.headerFormat:binary}")
+    private String listenerHeaderFormat;
+
+    /**
+     * Socket Netty 监听长度头字节数
+     */
+    @Value("${gateway.listen.socket.netty.framing.headerLength:4}")
+    private int listenerHeaderLength;
+
+    /**
+     * Socket Netty 监听长度值是否包含长度头本身
+     */
+    @Value("${gateway.listen.socket.netty.framing.includesHeader:false}")
+    private boolean listenerIncludesHeader;
+
+    /**
+     * Socket 长连接分帧方式：delimiter/length
+     */
+    @Value("${gateway.forward.socket.framing.mode:delimiter}")
+    private String socketFramingMode;
+
+    /**
+     * Socket 长连接长度头格式：binary/ascii
+     */
+    @Value("${gateway.forward.socket.framing.headerFormat:binary}")
+    private String socketHeaderFormat;
+
+    /**
+     * Socket 长连接长度头字节数
+     */
+    @Value("${gateway.forward.socket.framing.headerLength:4}")
+    private int socketHeaderLength;
+
+    /**
+     * Socket 长连接长度值是否包含长度头本身
+     */
+    @Value("${gateway.forward.socket.framing.includesHeader:false}")
+    private boolean socketIncludesHeader;
+
+    /**
+     * Netty 传输层，客户端与服务端共用
+     *
+     * @return 返回值
+     */
+    @Bean
+    public NettyTransport nettyTransport() {
+        NettyTransport selected = NettyTransport.select(transport);
+        log.info("Netty 传输层：{}（配置：{}）", selected.name(), transport);
+        return selected;
+    }
+
+    /**
+     * Netty 线程拓扑，Socket 监听、Socket 长连接池与 Http 异步客户端共用
+     *
+     * @param nettyTransport 传输层
+     * @return 返回值
+     */
+    @Bean(destroyMethod = "shutdown")
+    public EventLoopTopology eventLoopTopology(NettyTransport nettyTransport) {
+        return new EventLoopTopology(nettyTransport, ioThreads, reusePort, acceptors);
+    }
+
+    /**
+     * Socket Netty 监听分帧策略
+     *
+     * @return 返回值
+     */
+    @Bean
+    public FramingStrategy listenerFraming() {
+        FramingStrategy framing = FramingStrategy.of(listenerFramingMode, listenerHeaderFormat, listenerHeaderLength,
+                listenerIncludesHeader, maxFrameSize);
+        log.info("Socket Netty 监听分帧：{}", framing);
+        return framing;
+    }
+
+    /**
+     * Socket 长连接分帧策略
      *
      * @return 返回值
      */
-    @Bean(destroyMethod = "shutdownGracefully")
-    public EventLoopGroup httpSocketGroup() {
-        // 根据CPU核数动态设置
-        int threadCount = Runtime.getRuntime().availableProcessors() * 2;
-        return new NioEventLoopGroup(threadCount,
-                new DefaultThreadFactory("netty-socket-client-worker", true) {
-                    private final AtomicInteger id = new AtomicInteger(0);
-
-                    @Override
-                    public Thread newThread(Runnable r) {
-                        Thread thread = super.newThread(r);
-                        thread.setName("netty-socket-client-" + id.getAndIncrement());
-                        return thread;
-                    }
-                });
+    @Bean
+    public FramingStrategy socketFraming() {
+        FramingStrategy framing = FramingStrategy.of(socketFramingMode, socketHeaderFormat, socketHeaderLength,
+                socketIncludesHeader, maxFrameSize);
+        log.info("Socket 长连接分帧：{}", framing);
+        return framing;
     }
 }
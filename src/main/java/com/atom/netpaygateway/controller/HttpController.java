@@ -1,12 +1,19 @@
 package com.atom.netpaygateway.controller;
 
 import com.atom.netpaygateway.controller.response.HelloResponse;
+import com.atom.netpaygateway.enums.EnumRespCode;
+import com.atom.netpaygateway.exception.CircuitOpenException;
+import com.atom.netpaygateway.exception.GatewayException;
+import com.atom.netpaygateway.limiter.AdaptiveLimiter;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
 import com.atom.netpaygateway.service.HttpToSocketService;
+import com.atom.netpaygateway.utils.LogUtils;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.MediaType;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
@@ -14,6 +21,8 @@ import org.springframework.web.context.request.async.DeferredResult;
 import reactor.core.publisher.Mono;
 import reactor.util.annotation.Nullable;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * HTTP入口处理
  *
@@ -24,12 +33,29 @@ import reactor.util.annotation.Nullable;
 @RestController
 public class HttpController {
 
+    /**
+     * 指标入口名-线程池方案
+     */
+    private static final String ENTRY_POOL = "recvMsg";
+
+    /**
+     * 指标入口名-Netty方案
+     */
+    private static final String ENTRY_NETTY = "recvMsg1";
+
     /**
      * Http 线程池
      */
     @Autowired
     @Qualifier("httpThreadPoolExecutor")
-    private ThreadPoolTaskExecutor httpPoolExecutor;
+    private TaskExecutor httpPoolExecutor;
+
+    /**
+     * Http -> Socket 准入控制
+     */
+    @Autowired
+    @Qualifier("httpToSocketLimiter")
+    private AdaptiveLimiter limiter;
 
     /**
      * Http 处理服务
@@ -37,6 +63,12 @@ public class HttpController {
     @Autowired
     private HttpToSocketService service;
 
+    /**
+     * 网关指标
+     */
+    @Autowired
+    private GatewayMetrics metrics;
+
     /**
      * 测试接口HELLO
      *
@@ -57,18 +89,36 @@ public class HttpController {
      */
     @PostMapping(value = "${gateway.listen.http.url:/netpay-gateway/recv-from-fe}", produces = "text/plain")
     public DeferredResult<String> recvMsg(@RequestBody String requestMessage) {
+        Timer.Sample sample = metrics.start();
+        AdaptiveLimiter.Permit permit = acquire(ENTRY_POOL, sample);
         DeferredResult<String> deferredResult = new DeferredResult<>(5000L);
 
-        httpPoolExecutor.execute(() -> {
-            log.info("Http -> Socket 请求信息是：{}", requestMessage);
-            try {
-                String response = service.sendMessageWithPool(requestMessage);
-                log.info("Http -> Socket 响应信息是：{}", response);
-                deferredResult.setResult(response);
-            } catch (Exception e) {
-                deferredResult.setErrorResult("Error:" + e.getMessage());
-            }
-        });
+        try {
+            httpPoolExecutor.execute(() -> {
+                LogUtils.payload("Http -> Socket 请求信息是", requestMessage);
+                try {
+                    String response = service.sendMessageWithPool(requestMessage);
+                    LogUtils.payload("Http -> Socket 响应信息是", response);
+                    if (EnumRespCode.FAIL.getCode().equals(response)) {
+                        permit.failure();
+                        metrics.request(sample, ENTRY_POOL, EnumRespCode.FAIL);
+                    } else {
+                        permit.success();
+                        metrics.request(sample, ENTRY_POOL, EnumRespCode.SUCCESS);
+                    }
+                    deferredResult.setResult(response);
+                } catch (Exception e) {
+                    permit.failure(e);
+                    metrics.request(sample, ENTRY_POOL, EnumRespCode.FAIL);
+                    deferredResult.setErrorResult("Error:" + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permit.ignore();
+            metrics.rejected(ENTRY_POOL, GatewayMetrics.REJECTED_EXECUTOR);
+            metrics.request(sample, ENTRY_POOL, EnumRespCode.BUSY);
+            throw new GatewayException(EnumRespCode.BUSY);
+        }
 
         return deferredResult;
     }
@@ -81,10 +131,42 @@ public class HttpController {
      */
     @PostMapping(value = "${gateway.listen.http.url1:/netpay-gateway/recv-from-fe1}", produces = "text/plain")
     public Mono<String> recvMsg1(@RequestBody String requestMessage) {
-        log.info("Http -> Socket 请求信息是：{}", requestMessage);
+        Timer.Sample sample = metrics.start();
+        AdaptiveLimiter.Permit permit = acquire(ENTRY_NETTY, sample);
+        LogUtils.payload("Http -> Socket 请求信息是", requestMessage);
         return service.sendMessageWithNetty(requestMessage)
-                .doOnNext(response -> log.info("Http -> Socket 响应信息是：{}", response))
+                .doOnNext(response -> LogUtils.payload("Http -> Socket 响应信息是", response))
+                .doOnSuccess(response -> {
+                    permit.success();
+                    metrics.request(sample, ENTRY_NETTY, EnumRespCode.SUCCESS);
+                })
+                .doOnError(e -> {
+                    // 熔断时请求未到达后端，不作为拥塞样本
+                    if (CircuitOpenException.isCause(e)) {
+                        permit.ignore();
+                    } else {
+                        permit.failure(e);
+                    }
+                    metrics.request(sample, ENTRY_NETTY, GatewayMetrics.classify(e));
+                })
+                .doOnCancel(permit::ignore)
                 .switchIfEmpty(Mono.just("No response from socket")); // 防止空响应
     }
 
+    /**
+     * 申请准入许可，超过并发上限时立即返回繁忙（503）
+     *
+     * @param entry 入口
+     * @param sample 入口计时
+     * @return 返回值
+     */
+    private AdaptiveLimiter.Permit acquire(String entry, Timer.Sample sample) {
+        AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            metrics.rejected(entry, GatewayMetrics.REJECTED_LIMITER);
+            metrics.request(sample, entry, EnumRespCode.BUSY);
+            throw new GatewayException(EnumRespCode.BUSY);
+        }
+        return permit;
+    }
 }
@@ -0,0 +1,202 @@
+package com.atom.netpaygateway.controller;
+
+import com.atom.netpaygateway.config.EventLoopTopology;
+import com.atom.netpaygateway.enums.EnumRespCode;
+import com.atom.netpaygateway.exception.GatewayException;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.ByteBufMono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Http Netty方案来账接收-Reactor Netty 入口
+ * <p>
+ * 与 Servlet 入口（{@link HttpController#recvMsg1}）提供相同的 Netty 方案接口，但直接运行在 Reactor Netty HttpServer 上：
+ * 监听与读写使用网关共用的 io 线程，请求从接收、转发 Socket 到写回应答都在同一个 EventLoop 上完成，不经过 Servlet 线程。
+ * 准入控制、指标、幂等与转发沿用 {@link HttpController#recvMsg1}；线程池方案依赖阻塞调用，不在此入口提供
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+@Service
+public class HttpNettyController implements ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+
+    /**
+     * 是否启用，默认 否
+     */
+    @Value("${gateway.listen.http.netty.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 监听端口
+     */
+    @Value("${gateway.listen.http.netty.port:9002}")
+    private int port;
+
+    /**
+     * Netty方案接口路径
+     */
+    @Value("${gateway.listen.http.url1:/netpay-gateway/recv-from-fe1}")
+    private String url;
+
+    /**
+     * 请求体最大长度 字节，与 Socket 单笔报文上限一致（请求体即转发给 Socket 的报文）
+     */
+    @Value("${gateway.listen.socket.maxFrameSize:4194304}")
+    private int maxFrameSize;
+
+    /**
+     * Netty 线程拓扑，与 Socket 监听、Socket 长连接池、Http 异步客户端共用
+     */
+    @Autowired
+    private EventLoopTopology topology;
+
+    /**
+     * HTTP入口处理
+     */
+    @Autowired
+    private HttpController controller;
+
+    /**
+     * 服务端
+     */
+    private volatile DisposableServer server;
+
+    /**
+     * 启动
+     *
+     * @param event 参数说明
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!enabled || server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create()
+                    .port(port)
+                    .runOn(topology.ioGroup())
+                    .route(routes -> routes.post(url, this::handle))
+                    .bindNow();
+            log.info("Http -> Socket Reactor Netty 服务已启动，端口：{}，路径：{}", port, url);
+        } catch (Exception e) {
+            log.error("Http -> Socket Reactor Netty 服务启动失败，端口：{}", port, e);
+        }
+    }
+
+    /**
+     * 处理请求：聚合请求体后转发 Socket，应答以 text/plain 写回；请求体超过 maxFrameSize 返回 413
+     *
+     * @param request 请求
+     * @param response 应答
+     * @return 返回值
+     */
+    Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        return body(request.requestHeaders(), request.receive(), maxFrameSize).asString(StandardCharsets.UTF_8)
+                .defaultIfEmpty("")
+                .flatMap(body -> Mono.defer(() -> controller.recvMsg1(body)))
+                .map(body -> reply(response, HttpResponseStatus.OK, body))
+                .onErrorResume(e -> Mono.just(error(response, e)))
+                .flatMap(body -> response.sendString(Mono.just(body)).then());
+    }
+
+    /**
+     * 聚合请求体并限制长度：Content-Length 超过上限时不读取请求体直接失败，否则按已收字节计数，超过上限即停止接收
+     * （已收缓冲区随聚合失败释放），两种情况均以 {@link TooLongFrameException} 结束
+     *
+     * @param headers 请求头
+     * @param inbound 请求体
+     * @param maxBodySize 最大长度 字节
+     * @return 聚合后的请求体
+     */
+    static ByteBufMono body(HttpHeaders headers, Flux<ByteBuf> inbound, int maxBodySize) {
+        Integer contentLength = headers.getInt(HttpHeaderNames.CONTENT_LENGTH);
+        if (contentLength != null && contentLength > maxBodySize) {
+            return ByteBufFlux.fromInbound(Mono.error(
+                    new TooLongFrameException("HTTP请求长度" + contentLength + "超过上限" + maxBodySize))).aggregate();
+        }
+        Flux<ByteBuf> bounded = Flux.defer(() -> {
+            long[] received = {0};
+            return inbound.handle((buf, sink) -> {
+                received[0] += buf.readableBytes();
+                if (received[0] > maxBodySize) {
+                    sink.error(new TooLongFrameException("HTTP请求已收字节" + received[0] + "超过上限" + maxBodySize));
+                } else {
+                    sink.next(buf);
+                }
+            });
+        });
+        return ByteBufFlux.fromInbound(bounded).aggregate();
+    }
+
+    /**
+     * 异常应答，与 Servlet 入口的全局异常处理一致：繁忙返回 503，其余返回 500，响应体为响应码；
+     * 请求体超长返回 413 并关闭连接（未读完的请求体不再接收）
+     */
+    private String error(HttpServerResponse response, Throwable e) {
+        if (e instanceof TooLongFrameException) {
+            log.warn("Http -> Socket 请求超长：{}", e.getMessage());
+            response.keepAlive(false);
+            return reply(response, HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE, EnumRespCode.FAIL.getCode());
+        }
+        if (e instanceof GatewayException) {
+            EnumRespCode code = ((GatewayException) e).getRespCode();
+            if (code != EnumRespCode.BUSY) {
+                log.warn("网关异常：{}", e.getMessage());
+            }
+            return reply(response, code == EnumRespCode.BUSY ? HttpResponseStatus.SERVICE_UNAVAILABLE
+                    : HttpResponseStatus.INTERNAL_SERVER_ERROR, code.getCode());
+        }
+        log.warn("Http -> Socket 处理异常：{}", e.toString());
+        return reply(response, HttpResponseStatus.INTERNAL_SERVER_ERROR, GatewayMetrics.classify(e).getCode());
+    }
+
+    private static String reply(HttpServerResponse response, HttpResponseStatus status, String body) {
+        response.status(status).header(HttpHeaderNames.CONTENT_TYPE, "text/plain;charset=UTF-8");
+        return body;
+    }
+
+    /**
+     * 是否运行中
+     *
+     * @return 返回值
+     */
+    public boolean isRunning() {
+        DisposableServer current = server;
+        return current != null && !current.isDisposed();
+    }
+
+    /**
+     * 关闭：停止监听并等待在途请求完成，io 线程由线程拓扑统一关闭
+     */
+    @Override
+    public void destroy() {
+        DisposableServer current = server;
+        if (current != null) {
+            current.disposeNow(Duration.ofSeconds(5));
+            log.info("Http -> Socket Reactor Netty 服务已关闭");
+        }
+    }
+}
@@ -1,33 +1,41 @@
 package com.atom.netpaygateway.controller;
 
-import com.atom.netpaygateway.codec.XmlMessageDecoder;
+import com.atom.netpaygateway.codec.FramingStrategy;
+import com.atom.netpaygateway.codec.RequestEncoder;
+import com.atom.netpaygateway.codec.ResponseDecoder;
+import com.atom.netpaygateway.codec.ResponseSequencer;
+import com.atom.netpaygateway.config.EventLoopTopology;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.model.XmlMessage;
 import com.atom.netpaygateway.service.SocketToHttpService;
+import com.atom.netpaygateway.utils.LogUtils;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
-import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.WriteBufferWaterMark;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
-import io.netty.util.CharsetUtil;
-import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.GlobalEventExecutor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Socket Netty 实现
@@ -50,6 +58,43 @@ public class SocketNettyController implements ApplicationListener<ContextRefresh
     @Value("${gateway.listen.socket.netty.port}")
     private int port;
 
+    /**
+     * 字节模式：报文以 ByteBuf 直通 Http 请求体，不经过 String 转换，默认 否
+     */
+    @Value("${gateway.listen.socket.netty.byteMode:false}")
+    private boolean byteMode;
+
+    /**
+     * 单连接最大在途报文数（流水线），应答按请求顺序写回
+     */
+    @Value("${gateway.listen.socket.netty.maxPipelined:16}")
+    private int maxPipelined;
+
+    /**
+     * 是否开启 TCP_QUICKACK（仅 epoll），默认 否
+     */
+    @Value("${gateway.netty.tcpQuickAck:false}")
+    private boolean tcpQuickAck;
+
+    /**
+     * 流式转发（应答分片写回），不能与长度字段分帧同时开启
+     */
+    @Value("${gateway.forward.http.streaming:false}")
+    private boolean streaming;
+
+    /**
+     * 分帧策略
+     */
+    @Autowired
+    @Qualifier("listenerFraming")
+    private FramingStrategy framing;
+
+    /**
+     * Netty 线程拓扑，与 Socket 长连接池、Http 异步客户端共用
+     */
+    @Autowired
+    private EventLoopTopology topology;
+
     /**
      * Socket To Http 服务
      */
@@ -57,19 +102,51 @@ public class SocketNettyController implements ApplicationListener<ContextRefresh
     private SocketToHttpService service;
 
     /**
-     * 主线程
+     * 网关指标
+     */
+    @Autowired
+    private GatewayMetrics metrics;
+
+    /**
+     * 所有客户端连接，关闭后自动移除
      */
-    private EventLoopGroup bossGroup;
+    private final ChannelGroup channels = new DefaultChannelGroup("socket-listener", GlobalEventExecutor.INSTANCE);
 
     /**
-     * 工作线程
+     * 请求报文长度分布
      */
-    private EventLoopGroup workerGroup;
+    private DistributionSummary frameSize;
 
     /**
-     * 服务端通道
+     * 应答编码（所有连接共享）
      */
-    private Channel serverChannel;
+    private final RequestEncoder encoder = new RequestEncoder(PooledByteBufAllocator.DEFAULT);
+
+    /**
+     * 请求解码（所有连接共享）
+     */
+    private final ResponseDecoder decoder = new ResponseDecoder();
+
+    /**
+     * 服务端通道（SO_REUSEPORT 时每个监听通道一个）
+     */
+    private final List<Channel> serverChannels = new CopyOnWriteArrayList<>();
+
+    /**
+     * 校验分帧配置并登记指标
+     */
+    @PostConstruct
+    public void init() {
+        if (streaming && !framing.isDelimited()) {
+            throw new IllegalStateException("长度字段分帧需预先确定应答长度，不能与流式转发（gateway.forward.http.streaming）同时开启");
+        }
+        if (streaming && maxPipelined > 1) {
+            // 队首应答未写完时，后续应答的分片只能在内存中排队，大报文下无上限
+            throw new IllegalStateException("流式转发（gateway.forward.http.streaming）须将 gateway.listen.socket.netty.maxPipelined 设为 1");
+        }
+        frameSize = metrics.frameSize(channels.name());
+        metrics.channels(channels.name(), channels);
+    }
 
     /**
      * 启动
@@ -86,7 +163,7 @@ public class SocketNettyController implements ApplicationListener<ContextRefresh
      */
     public void restartServer() {
         log.info("准备重启Socket -> Http Netty 服务");
-        if (bossGroup != null && !bossGroup.isShuttingDown()) {
+        if (isRunning()) {
             log.warn("Socket -> Http Netty Server is already running, skip restart.");
             return;
         }
@@ -99,27 +176,41 @@ public class SocketNettyController implements ApplicationListener<ContextRefresh
     public void startServer() {
         long startTime = System.currentTimeMillis();
         try {
-            // 根据CPU核数动态设置
-            int threadCount = Runtime.getRuntime().availableProcessors() * 2;
-            bossGroup = new NioEventLoopGroup(1,
-                    new DefaultThreadFactory("netty-socket-server-boss", true));
-            workerGroup = new NioEventLoopGroup(threadCount,
-                    new DefaultThreadFactory("netty-socket-server-worker", true));
-            ServerBootstrap bootstrap = new ServerBootstrap();
-            bootstrap.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
+            ServerBootstrap bootstrap = topology.transport().configure(new ServerBootstrap(), topology.isReusePort(),
+                    tcpQuickAck);
+            bootstrap.group(topology.bossGroup(), topology.ioGroup())
                     .childHandler(new ChannelInitializer<SocketChannel>() {
                         @Override
                         protected void initChannel(SocketChannel channel) {
                             ChannelPipeline pipeline = channel.pipeline();
-                            pipeline.addLast(new XmlMessageDecoder());
-                            pipeline.addLast(new StringDecoder(CharsetUtil.UTF_8));
-                            pipeline.addLast(new StringEncoder(CharsetUtil.UTF_8));
-                            pipeline.addLast(new SimpleChannelInboundHandler<String>() {
+                            ResponseSequencer sequencer = new ResponseSequencer(maxPipelined);
+                            channels.add(channel);
+                            pipeline.addLast(framing.newDecoder(frameSize));
+                            if (!framing.isDelimited()) {
+                                pipeline.addLast(framing.encoder());
+                            }
+                            if (byteMode) {
+                                pipeline.addLast(encoder);
+                                pipeline.addLast(sequencer);
+                                // 报文所有权转交 Http 请求，请求完成后释放
+                                pipeline.addLast(new SimpleChannelInboundHandler<ByteBuf>(false) {
+                                    @Override
+                                    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+                                        LogUtils.payload("Socket -> Http 请求信息是", frame);
+                                        service.sendMessageWithNetty(sequencer.next(), frame);
+                                    }
+                                });
+                                return;
+                            }
+                            pipeline.addLast(decoder);
+                            pipeline.addLast(encoder);
+                            pipeline.addLast(sequencer);
+                            pipeline.addLast(new SimpleChannelInboundHandler<XmlMessage>() {
                                 @Override
-                                protected void channelRead0(ChannelHandlerContext ctx, String s) {
-                                    log.info("Socket -> Http 请求信息是：{}", s);
-                                    service.sendMessageWithNetty(ctx, s);
+                                protected void channelRead0(ChannelHandlerContext ctx, XmlMessage message) {
+                                    // 日志只解码采样部分，报文在转发时才转为 String
+                                    LogUtils.payload("Socket -> Http 请求信息是", message.content());
+                                    service.sendMessageWithNetty(sequencer.next(), message.text());
                                 }
                             });
                         }
@@ -144,10 +235,13 @@ public class SocketNettyController implements ApplicationListener<ContextRefresh
                     // 水位线控制：32KB低水位线/64KB高水位线，防止OOM
                     .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
                             new WriteBufferWaterMark(32 * 1024, 64 * 1024));
-            // 异步绑定端口
-            ChannelFuture bindFuture = bootstrap.bind(port).sync();
-            serverChannel = bindFuture.channel();
-            log.info("Socket -> Http Netty 服务:{} 启动成功，耗时：{}ms", port, System.currentTimeMillis() - startTime);
+            // 绑定端口，SO_REUSEPORT 时同一端口绑定多个监听通道
+            serverChannels.clear();
+            for (int i = 0; i < topology.acceptors(); i++) {
+                serverChannels.add(bootstrap.bind(port).sync().channel());
+            }
+            log.info("Socket -> Http Netty 服务:{} 启动成功，传输层：{}，监听通道数：{}，耗时：{}ms", port,
+                    topology.transport().name(), topology.acceptors(), System.currentTimeMillis() - startTime);
 
             // 重启Netty时需重制该开关
             isShutdown = false;
@@ -156,7 +250,9 @@ public class SocketNettyController implements ApplicationListener<ContextRefresh
             Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
 
             // 阻塞知道通道关闭（在独立线程中执行）
-            serverChannel.closeFuture().syncUninterruptibly();
+            for (Channel serverChannel : serverChannels) {
+                serverChannel.closeFuture().syncUninterruptibly();
+            }
         } catch (Exception e) {
             log.error("Critical error occurred during Netty Server startup", e);
             shutdown();
@@ -182,12 +278,10 @@ public class SocketNettyController implements ApplicationListener<ContextRefresh
         isShutdown = true;
 
         log.info("Shutting down Netty Server...");
-        // 同步关闭通道
+        // 同步关闭监听通道，不再接受新连接
         shutdownChannelSync();
-        // 启动优雅关闭
-        shutdownEventLoopGroups();
-        // 等待完全关闭
-        waitForNettyShutdown();
+        // 关闭客户端连接；线程组与 Socket 长连接池、Http 异步客户端共用，由线程拓扑统一关闭
+        channels.close().awaitUninterruptibly();
 
         log.info("Netty Server shutdown completed.");
     }
@@ -196,48 +290,30 @@ public class SocketNettyController implements ApplicationListener<ContextRefresh
      * 同步等待通道关闭
      */
     private void shutdownChannelSync() {
-        if (serverChannel != null) {
+        for (Channel serverChannel : serverChannels) {
             try {
                 serverChannel.close().sync();
                 log.info("Netty Server channel closed successfully.");
             } catch (InterruptedException e) {
                 log.warn("Interrupted while waiting for Netty Server channel to close.");
                 Thread.currentThread().interrupt();
+                return;
             }
         }
     }
 
     /**
-     * 关闭EventLoopGroups
-     */
-    private void shutdownEventLoopGroups() {
-        if (!bossGroup.isShutdown()) {
-            // 100ms静默期+300ms超时
-            bossGroup.shutdownGracefully(100, 300, TimeUnit.MILLISECONDS)
-                    .addListener(f -> log.info("Boss group shutdown complete"));
-        }
-        if (!workerGroup.isShutdown()) {
-            workerGroup.shutdownGracefully(100, 300, TimeUnit.MILLISECONDS)
-                    .addListener(f -> log.info("Worker group shutdown complete"));
-        }
-    }
-
-    /**
-     * 等待Netty关闭后，才能执行Spring容器的关闭
+     * 是否有监听通道仍在运行
+     *
+     * @return 返回值
      */
-    private void waitForNettyShutdown() {
-        try {
-            if (!bossGroup.isShutdown()) {
-                bossGroup.terminationFuture().sync();
-            }
-            if (!workerGroup.isShutdown()) {
-                workerGroup.terminationFuture().sync();
+    private boolean isRunning() {
+        for (Channel serverChannel : serverChannels) {
+            if (serverChannel.isOpen()) {
+                return true;
             }
-            log.info("Netty Resources fully released");
-        } catch (InterruptedException e) {
-            log.warn("Interrupted while waiting for Netty resources to release");
-            Thread.currentThread().interrupt();
         }
+        return false;
     }
 
     /**
@@ -246,6 +322,6 @@ public class SocketNettyController implements ApplicationListener<ContextRefresh
      * @return 返回值
      */
     public boolean isHealthy() {
-        return !bossGroup.isShutdown() && !workerGroup.isShutdown();
+        return isRunning() && !topology.isShuttingDown();
     }
 }
@@ -1,30 +1,80 @@
 package com.atom.netpaygateway.controller;
 
+import com.atom.netpaygateway.codec.EndMarkMatcher;
 import com.atom.netpaygateway.constants.Constants;
+import com.atom.netpaygateway.enums.EnumRespCode;
+import com.atom.netpaygateway.limiter.AdaptiveLimiter;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
 import com.atom.netpaygateway.service.SocketToHttpService;
+import com.atom.netpaygateway.utils.LogUtils;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Socket 入口处理
+ * <p>
+ * 单线程 Selector 负责接入与读写，按终止符增量分帧，只把完整报文交给 socket 处理线程池；
+ * 同一连接上的报文顺序处理，线程池大小只约束并发 Http 调用数，不被慢连接/空闲连接占用
  *
  * @author Tom
  * @date 11/3/2025
  */
 @Slf4j
 @Service
-public class SocketPoolController {
+public class SocketPoolController implements DisposableBean {
+
+    /**
+     * 终止符字节
+     */
+    private static final byte[] END_MARK_BYTES = Constants.END_MARK.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 读缓冲区大小
+     */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 报文缓冲区初始大小
+     */
+    private static final int INITIAL_FRAME_SIZE = 1024;
+
+    /**
+     * Selector 最长阻塞时间 毫秒，用于空闲连接检查
+     */
+    private static final long SELECT_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * 指标入口名
+     */
+    private static final String ENTRY = "socketPool";
+
+    /**
+     * 繁忙应答
+     */
+    private static final byte[] BUSY_REPLY = EnumRespCode.BUSY.getCode().getBytes(StandardCharsets.UTF_8);
 
     /**
      * socket 监听端口
@@ -32,6 +82,24 @@ public class SocketPoolController {
     @Value("${gateway.listen.socket.port:11111}")
     private int port;
 
+    /**
+     * 长连接：同一连接上顺序处理多笔报文，默认 否（处理一笔后关闭）
+     */
+    @Value("${gateway.listen.socket.keepAlive:false}")
+    private boolean keepAlive;
+
+    /**
+     * 连接空闲超时时间 秒，超时未收发数据则关闭连接
+     */
+    @Value("${gateway.listen.socket.idleTimeout:60}")
+    private int idleTimeout;
+
+    /**
+     * 单笔报文最大长度
+     */
+    @Value("${gateway.listen.socket.maxFrameSize:4194304}")
+    private int maxFrameSize;
+
     /**
      * socket 处理
      */
@@ -43,56 +111,385 @@ public class SocketPoolController {
      */
     @Autowired
     @Qualifier("socketThreadPoolExecutor")
-    private ThreadPoolTaskExecutor executor;
+    private TaskExecutor executor;
+
+    /**
+     * Socket -> Http 准入控制
+     */
+    @Autowired
+    @Qualifier("socketToHttpLimiter")
+    private AdaptiveLimiter limiter;
+
+    /**
+     * 网关指标
+     */
+    @Autowired
+    private GatewayMetrics metrics;
+
+    /**
+     * 读缓冲区，仅 Selector 线程使用，所有连接复用
+     */
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+    /**
+     * 已生成应答、等待 Selector 线程写出的连接
+     */
+    private final Queue<Connection> replied = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 多路复用器
+     */
+    private volatile Selector selector;
 
     /**
      * Socket 线程池方案来账接收
      */
     @PostConstruct
     public void start() {
-        // 内部的 while(true) 会占用主进程，所以提交一个新线程去处理
+        // Selector 循环会占用当前线程，所以提交一个新线程去处理
         new Thread(() -> {
-            try (ServerSocket serverSocket = new ServerSocket(port)) {
+            try (Selector sel = Selector.open();
+                 ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+                serverChannel.configureBlocking(false);
+                serverChannel.bind(new InetSocketAddress(port), 1024);
+                serverChannel.register(sel, SelectionKey.OP_ACCEPT);
+                selector = sel;
                 log.info("Socket 监听已启动，端口：{}", port);
-                while (true) {
-                    Socket clientSocket = serverSocket.accept();
-                    executor.execute(() -> {
-                        try (BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-                             OutputStream out = clientSocket.getOutputStream()) {
-                            StringBuilder request = new StringBuilder();
-                            StringBuilder endMarker = new StringBuilder();
-                            int ch;
-                            while ((ch = in.read()) != -1) {
-                                request.append((char) ch);
-                                endMarker.append((char) ch);
-
-                                if (endMarker.length() >= Constants.END_MARK.length()) {
-                                    String lastChars = endMarker.substring(endMarker.length() - Constants.END_MARK.length());
-                                    if (lastChars.equals(Constants.END_MARK)) {
-                                        break;
-                                    }
-                                }
-                            }
-                            log.info("Socket -> Http 请求信息是：{}", request);
-
-                            String response = socketToHttpService.sendMessageWithPool(request.toString());
-                            log.info("Socket -> Http 响应信息是：{}", response);
-                            out.write(response.getBytes());
-                            out.flush();
-                        } catch (Exception e) {
-                            log.error("Socket 处理失败：{}", e.getMessage());
-                        } finally {
-                            try {
-                                clientSocket.close();
-                            } catch (Exception e) {
-                                log.error("Socket 关闭失败：{}", e.getMessage());
-                            }
-                        }
-                    });
-                }
+                selectLoop(sel, serverChannel);
+            } catch (ClosedSelectorException e) {
+                log.info("Socket 监听已关闭，端口：{}", port);
             } catch (Exception e) {
                 log.error("Socket 线程池执行失败：{}", e.getMessage());
             }
-        }).start();
+        }, "socket-pool-selector").start();
+    }
+
+    /**
+     * 关闭监听
+     */
+    @Override
+    public void destroy() throws IOException {
+        Selector sel = selector;
+        if (sel != null) {
+            for (SelectionKey key : sel.keys()) {
+                key.channel().close();
+            }
+            sel.close();
+        }
+    }
+
+    /**
+     * Selector 主循环
+     *
+     * @param sel 多路复用器
+     * @param serverChannel 监听通道
+     * @throws IOException 选择异常
+     */
+    private void selectLoop(Selector sel, ServerSocketChannel serverChannel) throws IOException {
+        long lastSweep = System.currentTimeMillis();
+        while (sel.isOpen()) {
+            sel.select(SELECT_TIMEOUT_MILLIS);
+            Iterator<SelectionKey> keys = sel.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept(sel, serverChannel);
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.write();
+                    }
+                } catch (IOException e) {
+                    log.error("Socket 处理失败：{}", e.getMessage());
+                    connection.close();
+                }
+            }
+            Connection connection;
+            while ((connection = replied.poll()) != null) {
+                try {
+                    connection.write();
+                } catch (IOException e) {
+                    log.error("Socket 处理失败：{}", e.getMessage());
+                    connection.close();
+                }
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastSweep >= SELECT_TIMEOUT_MILLIS) {
+                lastSweep = now;
+                closeIdle(sel, now);
+            }
+        }
+    }
+
+    private void accept(Selector sel, ServerSocketChannel serverChannel) throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(sel, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    private void closeIdle(Selector sel, long now) {
+        long timeout = idleTimeout * 1000L;
+        for (SelectionKey key : sel.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof Connection && now - ((Connection) attachment).lastActive > timeout) {
+                log.info("Socket 连接空闲超时，关闭连接：{}", ((Connection) attachment).channel.socket().getRemoteSocketAddress());
+                ((Connection) attachment).close();
+            }
+        }
+    }
+
+    /**
+     * 连接状态，除 response 外只在 Selector 线程中读写
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+
+        private final SelectionKey key;
+
+        /**
+         * 终止符匹配状态，跨多次读取保留
+         */
+        private final EndMarkMatcher matcher = new EndMarkMatcher(END_MARK_BYTES);
+
+        /**
+         * 未完成的报文
+         */
+        private byte[] frame = new byte[INITIAL_FRAME_SIZE];
+
+        private int frameLength;
+
+        /**
+         * 已完整读取、等待处理的报文
+         */
+        private final Queue<String> frames = new ArrayDeque<>();
+
+        /**
+         * 是否有报文正在处理
+         */
+        private boolean busy;
+
+        /**
+         * 对端是否已关闭输出
+         */
+        private boolean eof;
+
+        /**
+         * 处理线程生成的应答
+         */
+        private volatile ByteBuffer response;
+
+        /**
+         * 正在写出的应答
+         */
+        private ByteBuffer writing;
+
+        private long lastActive = System.currentTimeMillis();
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() throws IOException {
+            readBuffer.clear();
+            int n = channel.read(readBuffer);
+            if (n < 0) {
+                eof = true;
+                if (frameLength > 0) {
+                    // 对端关闭前未发送终止符：按已收到的内容处理
+                    emit();
+                }
+                if (!busy && frames.isEmpty()) {
+                    close();
+                    return;
+                }
+            } else {
+                lastActive = System.currentTimeMillis();
+                readBuffer.flip();
+                if (!scan()) {
+                    return;
+                }
+            }
+            dispatch();
+            updateInterest();
+        }
+
+        /**
+         * 在读缓冲区中查找终止符，完整报文放入待处理队列
+         *
+         * @return 报文超长关闭连接时返回 false
+         */
+        private boolean scan() {
+            int start = readBuffer.position();
+            int limit = readBuffer.limit();
+            for (int i = start; i < limit; i++) {
+                if (!matcher.process(readBuffer.get(i))) {
+                    append(start, i + 1);
+                    emit();
+                    start = i + 1;
+                }
+            }
+            append(start, limit);
+            if (frameLength > maxFrameSize) {
+                log.warn("Socket 报文超长：{}，关闭连接", frameLength);
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        private void append(int from, int to) {
+            int length = to - from;
+            if (length == 0) {
+                return;
+            }
+            if (frameLength + length > frame.length) {
+                frame = Arrays.copyOf(frame, Math.max(frame.length * 2, frameLength + length));
+            }
+            readBuffer.position(from);
+            readBuffer.get(frame, frameLength, length);
+            frameLength += length;
+        }
+
+        private void emit() {
+            frames.add(new String(frame, 0, frameLength, StandardCharsets.UTF_8));
+            frameLength = 0;
+            if (frame.length > INITIAL_FRAME_SIZE * 64) {
+                frame = new byte[INITIAL_FRAME_SIZE];
+            }
+        }
+
+        /**
+         * 当前无报文处理时，提交下一笔报文；超过并发上限或线程池已满时直接应答繁忙
+         */
+        private void dispatch() throws IOException {
+            if (busy || frames.isEmpty()) {
+                return;
+            }
+            String request = frames.poll();
+            if (!keepAlive) {
+                // 短连接只处理一笔报文
+                frames.clear();
+            }
+            busy = true;
+            Timer.Sample sample = metrics.start();
+            AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                log.warn("Socket -> Http 并发已达上限：{}，应答繁忙", limiter.getLimit());
+                rejectBusy(sample, GatewayMetrics.REJECTED_LIMITER);
+                return;
+            }
+            try {
+                executor.execute(() -> handle(request, permit, sample));
+            } catch (RejectedExecutionException e) {
+                permit.ignore();
+                log.warn("Socket 处理线程池已满，应答繁忙");
+                rejectBusy(sample, GatewayMetrics.REJECTED_EXECUTOR);
+            }
+        }
+
+        private void rejectBusy(Timer.Sample sample, String reason) throws IOException {
+            metrics.rejected(ENTRY, reason);
+            metrics.request(sample, ENTRY, EnumRespCode.BUSY);
+            response = ByteBuffer.wrap(BUSY_REPLY);
+            write();
+        }
+
+        /**
+         * 处理线程中执行：转发 Http 并交回 Selector 线程写出
+         *
+         * @param request 报文
+         * @param permit 准入许可
+         * @param sample 入口计时
+         */
+        private void handle(String request, AdaptiveLimiter.Permit permit, Timer.Sample sample) {
+            String reply;
+            try {
+                LogUtils.payload("Socket -> Http 请求信息是", request);
+                reply = socketToHttpService.sendMessageWithPool(request);
+                LogUtils.payload("Socket -> Http 响应信息是", reply);
+            } catch (Exception e) {
+                log.error("Socket 处理失败：{}", e.getMessage());
+                reply = EnumRespCode.FAIL.getCode();
+            }
+            if (EnumRespCode.FAIL.getCode().equals(reply)) {
+                permit.failure();
+                metrics.request(sample, ENTRY, EnumRespCode.FAIL);
+            } else {
+                permit.success();
+                metrics.request(sample, ENTRY, EnumRespCode.SUCCESS);
+            }
+            response = ByteBuffer.wrap(reply.getBytes(StandardCharsets.UTF_8));
+            replied.add(this);
+            selector.wakeup();
+        }
+
+        void write() throws IOException {
+            if (!channel.isOpen()) {
+                return;
+            }
+            if (writing == null) {
+                writing = response;
+                response = null;
+                if (writing == null) {
+                    return;
+                }
+            }
+            channel.write(writing);
+            lastActive = System.currentTimeMillis();
+            if (writing.hasRemaining()) {
+                updateInterest();
+                return;
+            }
+            writing = null;
+            busy = false;
+            if (!keepAlive || (eof && frames.isEmpty())) {
+                close();
+                return;
+            }
+            dispatch();
+            updateInterest();
+        }
+
+        /**
+         * 写出未完成时只关注可写；处理中暂停读取，避免单连接堆积报文
+         */
+        private void updateInterest() {
+            if (!key.isValid()) {
+                return;
+            }
+            int ops;
+            if (writing != null) {
+                ops = SelectionKey.OP_WRITE;
+            } else if (busy || eof || !keepAlive && !frames.isEmpty()) {
+                ops = 0;
+            } else {
+                ops = SelectionKey.OP_READ;
+            }
+            key.interestOps(ops);
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.error("Socket 关闭失败：{}", e.getMessage());
+            }
+        }
     }
 }
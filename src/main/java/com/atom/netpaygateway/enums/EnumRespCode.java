@@ -14,6 +14,7 @@ import lombok.Getter;
 public enum EnumRespCode {
 
     SUCCESS("0000", "成功"),
+    BUSY("7777", "系统繁忙"),
     TIMEOUT("8888", "超时"),
     FAIL("9999", "失败");
 
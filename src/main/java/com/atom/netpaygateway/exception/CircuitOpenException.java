@@ -0,0 +1,36 @@
+package com.atom.netpaygateway.exception;
+
+import com.atom.netpaygateway.enums.EnumRespCode;
+
+/**
+ * 熔断异常：后端熔断打开，请求未发出即失败
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class CircuitOpenException extends GatewayException {
+
+    /**
+     * 带参构造函数
+     *
+     * @param backend 后端名称
+     */
+    public CircuitOpenException(String backend) {
+        super(EnumRespCode.FAIL, "后端熔断中：" + backend);
+    }
+
+    /**
+     * 异常链中是否包含熔断异常（请求未到达后端）
+     *
+     * @param ex 异常
+     * @return 返回值
+     */
+    public static boolean isCause(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof CircuitOpenException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,10 +1,40 @@
 package com.atom.netpaygateway.exception;
 
+import com.atom.netpaygateway.enums.EnumRespCode;
+import lombok.Getter;
+
 /**
  * 自定义异常
  *
  * @author Tom
  * @date 7/3/2025
  */
-public class GatewayException {
+@Getter
+public class GatewayException extends RuntimeException {
+
+    /**
+     * 响应码
+     */
+    private final EnumRespCode respCode;
+
+    /**
+     * 带参构造函数
+     *
+     * @param respCode 响应码
+     */
+    public GatewayException(EnumRespCode respCode) {
+        super(respCode.getDesc());
+        this.respCode = respCode;
+    }
+
+    /**
+     * 带参构造函数
+     *
+     * @param respCode 响应码
+     * @param message 异常信息
+     */
+    public GatewayException(EnumRespCode respCode, String message) {
+        super(message);
+        this.respCode = respCode;
+    }
 }
@@ -1,10 +1,38 @@
 package com.atom.netpaygateway.exception;
 
+import com.atom.netpaygateway.enums.EnumRespCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
 /**
  * 全局异常处理
  *
  * @author Tom
  * @date 7/3/2025
  */
+@Slf4j
+@RestControllerAdvice
 public class GlobalExceptionHandler {
+
+    /**
+     * 网关异常：繁忙返回 503，其余返回 500，响应体为响应码
+     *
+     * @param e 异常
+     * @return 返回值
+     */
+    @ExceptionHandler(GatewayException.class)
+    public ResponseEntity<String> handleGatewayException(GatewayException e) {
+        HttpStatus status = e.getRespCode() == EnumRespCode.BUSY
+                ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.INTERNAL_SERVER_ERROR;
+        if (status != HttpStatus.SERVICE_UNAVAILABLE) {
+            log.warn("网关异常：{}", e.getMessage());
+        }
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getRespCode().getCode());
+    }
 }
@@ -0,0 +1,297 @@
+package com.atom.netpaygateway.limiter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 自适应并发限制（AIMD，按后端时延调整）
+ * <p>
+ * 每笔请求先 {@link #tryAcquire()} 取得许可，在途数达到当前上限时立即拒绝；请求结束时以耗时与结果回写样本：
+ * 平滑耗时（EWMA）不超过基线时延（上一窗口最小耗时）的 tolerance 倍时，上限每轮加一（加性增）；
+ * 超时/传输异常（{@link Permit#drop()}）或平滑耗时膨胀时，上限乘以 backoffRatio（乘性减），
+ * 每个耗时区间内最多减一次，避免单个慢请求或同一轮拥塞的多个样本连续压低上限。
+ * 业务失败（{@link Permit#failure()}）不作为拥塞信号。取许可路径无锁，样本更新加锁
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+public class AdaptiveLimiter {
+
+    /**
+     * 平滑耗时 EWMA 系数
+     */
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * 名称，用于日志
+     */
+    private final String name;
+
+    /**
+     * 上限下界
+     */
+    private final int minLimit;
+
+    /**
+     * 上限上界
+     */
+    private final int maxLimit;
+
+    /**
+     * 乘性减系数
+     */
+    private final double backoffRatio;
+
+    /**
+     * 时延容忍倍数
+     */
+    private final double tolerance;
+
+    /**
+     * 基线时延统计窗口（样本数）
+     */
+    private final int windowSize;
+
+    /**
+     * 在途请求数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 当前上限
+     */
+    private volatile int limit;
+
+    /**
+     * 上限的小数部分累计（加性增每个样本 1/limit）
+     */
+    private double estimatedLimit;
+
+    /**
+     * 基线时延 纳秒，0 表示尚无基线
+     */
+    private long baselineRtt;
+
+    /**
+     * 平滑耗时 纳秒，0 表示尚无样本
+     */
+    private long smoothedRtt;
+
+    /**
+     * 上次乘性减的时间 纳秒
+     */
+    private long lastDecrease;
+
+    /**
+     * 是否已有乘性减
+     */
+    private boolean decreased;
+
+    /**
+     * 当前窗口最小耗时 纳秒
+     */
+    private long windowMinRtt = Long.MAX_VALUE;
+
+    /**
+     * 当前窗口样本数
+     */
+    private int windowSamples;
+
+    /**
+     * 带参构造函数
+     *
+     * @param name 名称
+     * @param initialLimit 初始上限
+     * @param minLimit 上限下界
+     * @param maxLimit 上限上界
+     * @param backoffRatio 乘性减系数，(0, 1)
+     * @param tolerance 时延容忍倍数，大于 1
+     * @param windowSize 基线时延统计窗口（样本数）
+     */
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                           double tolerance, int windowSize) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1 || tolerance <= 1) {
+            throw new IllegalArgumentException("invalid limiter settings: " + name);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.windowSize = Math.max(1, windowSize);
+        this.limit = Math.min(maxLimit, Math.max(minLimit, initialLimit));
+        this.estimatedLimit = limit;
+    }
+
+    /**
+     * 申请许可
+     *
+     * @return 许可；在途数已达上限时返回 null
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(System.nanoTime());
+    }
+
+    /**
+     * 当前上限
+     *
+     * @return 返回值
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 在途请求数
+     *
+     * @return 返回值
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 名称
+     *
+     * @return 返回值
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 是否为拥塞信号：超时或传输异常（连接失败、连接断开等），业务失败不计
+     *
+     * @param ex 异常
+     * @return 返回值
+     */
+    public static boolean isDrop(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void onSample(long now, long rtt, boolean drop) {
+        if (!drop) {
+            smoothedRtt = smoothedRtt == 0 ? rtt : (long) (smoothedRtt + SMOOTHING * (rtt - smoothedRtt));
+            windowMinRtt = Math.min(windowMinRtt, rtt);
+            if (++windowSamples >= windowSize) {
+                baselineRtt = windowMinRtt;
+                windowMinRtt = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+        }
+        boolean congested = drop || baselineRtt > 0 && smoothedRtt > baselineRtt * tolerance;
+        double next;
+        if (congested) {
+            // 上次减小后至少经过一个平滑耗时，减小的效果才会体现在新样本上
+            if (decreased && now - lastDecrease < Math.max(smoothedRtt, baselineRtt)) {
+                return;
+            }
+            decreased = true;
+            lastDecrease = now;
+            next = estimatedLimit * backoffRatio;
+        } else if (inFlight.get() + 1 >= limit / 2) {
+            // 仅在上限被实际使用时增长，避免低负载时上限无限膨胀
+            next = estimatedLimit + 1.0 / estimatedLimit;
+        } else {
+            return;
+        }
+        estimatedLimit = Math.min(maxLimit, Math.max(minLimit, next));
+        int newLimit = (int) estimatedLimit;
+        if (newLimit != limit) {
+            if (log.isDebugEnabled()) {
+                log.debug("限流器：{} 上限调整 {} -> {}，平滑耗时：{}us，基线：{}us", name, limit, newLimit,
+                        smoothedRtt / 1000, baselineRtt / 1000);
+            }
+            limit = newLimit;
+        }
+    }
+
+    /**
+     * 许可：请求结束时调用且只调用一次 {@link #success()}、{@link #failure()}、{@link #drop()} 或 {@link #ignore()}
+     */
+    public final class Permit {
+
+        /**
+         * 开始时间 纳秒
+         */
+        private final long start;
+
+        /**
+         * 是否已释放
+         */
+        private boolean released;
+
+        private Permit(long start) {
+            this.start = start;
+        }
+
+        /**
+         * 请求成功，以耗时作为样本
+         */
+        public void success() {
+            release(true, false);
+        }
+
+        /**
+         * 业务失败：后端已应答，只归还许可，不作为拥塞信号
+         */
+        public void failure() {
+            release(false, false);
+        }
+
+        /**
+         * 超时/传输异常，触发乘性减
+         */
+        public void drop() {
+            release(true, true);
+        }
+
+        /**
+         * 请求异常：超时/传输异常按 {@link #drop()}，其余按 {@link #failure()}
+         *
+         * @param ex 异常
+         */
+        public void failure(Throwable ex) {
+            if (isDrop(ex)) {
+                drop();
+            } else {
+                failure();
+            }
+        }
+
+        /**
+         * 请求未到达后端（如被执行器拒绝），只归还许可不计样本
+         */
+        public void ignore() {
+            release(false, false);
+        }
+
+        private synchronized void release(boolean sample, boolean drop) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            if (sample) {
+                long now = System.nanoTime();
+                onSample(now, now - start, drop);
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.atom.netpaygateway.limiter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 熔断器（关闭/打开/半开），后端不可用时快速失败，不再等待连接或应答超时
+ * <p>
+ * 关闭状态下按最近 windowSize 笔调用的失败率与慢调用率判断：样本数达到 minCalls 且任一比例达到阈值时打开；
+ * 打开 openDuration 后进入半开，放行 halfOpenCalls 笔探测，全部成功则关闭，任一失败或慢调用则重新打开。
+ * 全程无锁：状态以 CAS 切换，滑动窗口为环形数组
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    /**
+     * 状态
+     */
+    public enum State {
+        /**
+         * 关闭：正常放行
+         */
+        CLOSED,
+        /**
+         * 打开：快速失败
+         */
+        OPEN,
+        /**
+         * 半开：放行少量探测
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * 名称
+     */
+    private final String name;
+
+    /**
+     * 滑动窗口大小（调用数）
+     */
+    private final int windowSize;
+
+    /**
+     * 计算比例所需的最少样本数
+     */
+    private final int minCalls;
+
+    /**
+     * 失败率阈值，(0, 1]
+     */
+    private final double failureRateThreshold;
+
+    /**
+     * 慢调用耗时阈值 纳秒
+     */
+    private final long slowCallNanos;
+
+    /**
+     * 慢调用率阈值，(0, 1]
+     */
+    private final double slowCallRateThreshold;
+
+    /**
+     * 打开持续时间 纳秒
+     */
+    private final long openNanos;
+
+    /**
+     * 半开状态放行的探测数
+     */
+    private final int halfOpenCalls;
+
+    /**
+     * 当前状态
+     */
+    private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+
+    /**
+     * 打开时间 纳秒
+     */
+    private volatile long openedAt;
+
+    /**
+     * 半开状态剩余的探测许可
+     */
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    /**
+     * 半开状态已成功的探测数
+     */
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    /**
+     * 关闭状态的滑动窗口，关闭时整体替换
+     */
+    private volatile Window window;
+
+    /**
+     * 带参构造函数
+     *
+     * @param name 名称
+     * @param windowSize 滑动窗口大小（调用数）
+     * @param minCalls 计算比例所需的最少样本数
+     * @param failureRateThreshold 失败率阈值
+     * @param slowCallMillis 慢调用耗时阈值 毫秒
+     * @param slowCallRateThreshold 慢调用率阈值
+     * @param openMillis 打开持续时间 毫秒
+     * @param halfOpenCalls 半开状态放行的探测数
+     */
+    public CircuitBreaker(String name, int windowSize, int minCalls, double failureRateThreshold, long slowCallMillis,
+                          double slowCallRateThreshold, long openMillis, int halfOpenCalls) {
+        if (windowSize < 1 || minCalls < 1 || failureRateThreshold <= 0 || slowCallRateThreshold <= 0
+                || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("invalid circuit breaker settings: " + name);
+        }
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallMillis * 1_000_000L;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+        this.halfOpenCalls = halfOpenCalls;
+        this.window = new Window(windowSize);
+    }
+
+    /**
+     * 始终关闭的熔断器：样本数永远达不到下限
+     *
+     * @param name 名称
+     * @return 返回值
+     */
+    public static CircuitBreaker disabled(String name) {
+        return new CircuitBreaker(name, 1, Integer.MAX_VALUE, 1.0, Long.MAX_VALUE / 1_000_000L, 1.0, 0, 1);
+    }
+
+    /**
+     * 申请调用许可
+     *
+     * @return 许可；熔断打开或半开探测已满时返回 null
+     */
+    public Permit tryAcquire() {
+        int current = state.get();
+        if (current == State.CLOSED.ordinal()) {
+            return new Permit(System.nanoTime(), false);
+        }
+        if (current == State.OPEN.ordinal()) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return null;
+            }
+            if (state.compareAndSet(current, State.HALF_OPEN.ordinal())) {
+                halfOpenSuccesses.set(0);
+                halfOpenPermits.set(halfOpenCalls);
+                log.info("熔断器：{} 进入半开，放行探测数：{}", name, halfOpenCalls);
+            }
+        }
+        return acquireHalfOpen();
+    }
+
+    private Permit acquireHalfOpen() {
+        int permits;
+        do {
+            permits = halfOpenPermits.get();
+            if (permits <= 0 || state.get() != State.HALF_OPEN.ordinal()) {
+                return null;
+            }
+        } while (!halfOpenPermits.compareAndSet(permits, permits - 1));
+        return new Permit(System.nanoTime(), true);
+    }
+
+    /**
+     * 当前状态
+     *
+     * @return 返回值
+     */
+    public State getState() {
+        return State.values()[state.get()];
+    }
+
+    /**
+     * 滑动窗口失败率，样本不足时为 0
+     *
+     * @return 返回值
+     */
+    public double getFailureRate() {
+        return window.failureRate();
+    }
+
+    /**
+     * 名称
+     *
+     * @return 返回值
+     */
+    public String getName() {
+        return name;
+    }
+
+    private void onResult(boolean halfOpen, long nanos, boolean success) {
+        boolean slow = nanos > slowCallNanos;
+        if (halfOpen) {
+            if (!success || slow) {
+                open(State.HALF_OPEN, success ? "探测调用过慢" : "探测调用失败");
+            } else if (halfOpenSuccesses.incrementAndGet() >= halfOpenCalls
+                    && state.compareAndSet(State.HALF_OPEN.ordinal(), State.CLOSED.ordinal())) {
+                window = new Window(windowSize);
+                log.info("熔断器：{} 关闭", name);
+            }
+            return;
+        }
+        if (state.get() != State.CLOSED.ordinal()) {
+            return;
+        }
+        Window current = window;
+        current.record(success, slow);
+        int calls = current.calls.get();
+        if (calls < minCalls) {
+            return;
+        }
+        if (current.failures.get() >= failureRateThreshold * calls) {
+            open(State.CLOSED, "失败率：" + current.failures.get() + "/" + calls);
+        } else if (current.slowCalls.get() >= slowCallRateThreshold * calls) {
+            open(State.CLOSED, "慢调用率：" + current.slowCalls.get() + "/" + calls);
+        }
+    }
+
+    private void open(State from, String reason) {
+        if (state.compareAndSet(from.ordinal(), State.OPEN.ordinal())) {
+            openedAt = System.nanoTime();
+            log.warn("熔断器：{} 打开，{}，{}ms 后半开", name, reason, openNanos / 1_000_000L);
+        }
+    }
+
+    /**
+     * 环形滑动窗口：每个槽位记录一笔调用结果，覆盖时扣减旧结果
+     */
+    private static final class Window {
+
+        private static final int RECORDED = 1;
+
+        private static final int FAILURE = 2;
+
+        private static final int SLOW = 4;
+
+        private final AtomicIntegerArray outcomes;
+
+        private final AtomicLong cursor = new AtomicLong();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicInteger slowCalls = new AtomicInteger();
+
+        private Window(int size) {
+            this.outcomes = new AtomicIntegerArray(size);
+        }
+
+        private void record(boolean success, boolean slow) {
+            int outcome = RECORDED | (success ? 0 : FAILURE) | (slow ? SLOW : 0);
+            int index = (int) (cursor.getAndIncrement() % outcomes.length());
+            int old = outcomes.getAndSet(index, outcome);
+            calls.addAndGet((outcome & RECORDED) - (old & RECORDED));
+            failures.addAndGet(((outcome & FAILURE) - (old & FAILURE)) / FAILURE);
+            slowCalls.addAndGet(((outcome & SLOW) - (old & SLOW)) / SLOW);
+        }
+
+        private double failureRate() {
+            int total = calls.get();
+            return total == 0 ? 0 : (double) failures.get() / total;
+        }
+    }
+
+    /**
+     * 许可：调用结束时调用且只调用一次 {@link #success()}、{@link #failure()} 或 {@link #ignore()}
+     */
+    public final class Permit {
+
+        /**
+         * 开始时间 纳秒
+         */
+        private final long start;
+
+        /**
+         * 是否半开探测
+         */
+        private final boolean halfOpen;
+
+        /**
+         * 是否已释放
+         */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long start, boolean halfOpen) {
+            this.start = start;
+            this.halfOpen = halfOpen;
+        }
+
+        /**
+         * 调用成功
+         */
+        public void success() {
+            if (released.compareAndSet(false, true)) {
+                onResult(halfOpen, System.nanoTime() - start, true);
+            }
+        }
+
+        /**
+         * 调用失败/超时
+         */
+        public void failure() {
+            if (released.compareAndSet(false, true)) {
+                onResult(halfOpen, System.nanoTime() - start, false);
+            }
+        }
+
+        /**
+         * 调用被取消，不计结果；半开探测归还许可
+         */
+        public void ignore() {
+            if (released.compareAndSet(false, true) && halfOpen) {
+                halfOpenPermits.incrementAndGet();
+            }
+        }
+    }
+}
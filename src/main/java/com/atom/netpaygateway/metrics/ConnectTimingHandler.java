@@ -0,0 +1,46 @@
+package com.atom.netpaygateway.metrics;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * 后端建连计时：通道初始化（发起连接前）加入 pipeline，连接建立后记录耗时并移除自身
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class ConnectTimingHandler extends ChannelInboundHandlerAdapter {
+
+    /**
+     * 网关指标
+     */
+    private final GatewayMetrics metrics;
+
+    /**
+     * 后端类型
+     */
+    private final String backend;
+
+    /**
+     * 开始时间 纳秒
+     */
+    private final long start = System.nanoTime();
+
+    /**
+     * 带参构造函数
+     *
+     * @param metrics 网关指标
+     * @param backend 后端类型
+     */
+    public ConnectTimingHandler(GatewayMetrics metrics, String backend) {
+        this.metrics = metrics;
+        this.backend = backend;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        metrics.connect(backend, System.nanoTime() - start);
+        ctx.pipeline().remove(this);
+        super.channelActive(ctx);
+    }
+}
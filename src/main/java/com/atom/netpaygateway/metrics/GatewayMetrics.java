@@ -0,0 +1,265 @@
+package com.atom.netpaygateway.metrics;
+
+import com.atom.netpaygateway.enums.EnumRespCode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.group.ChannelGroup;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 网关指标：统一指标名与标签，经 /actuator/prometheus 暴露
+ * <p>
+ * gateway.request：入口耗时（entry、code）；gateway.backend.response：后端耗时（backend、code）；
+ * gateway.backend.connect：后端建连耗时；gateway.rejected：拒绝数（entry、reason）；
+ * gateway.netty.*：Netty 通道数与待写出字节；gateway.decoder.frame.size：解码报文长度；
+ * gateway.idempotency：幂等缓存结果（name、result）与条数；gateway.circuit.rejected：熔断快速失败数；
+ * gateway.netty.write.*：写合并每次刷出的报文数与增加的时延
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Component
+public class GatewayMetrics {
+
+    /**
+     * 后端类型：Socket
+     */
+    public static final String BACKEND_SOCKET = "socket";
+
+    /**
+     * 后端类型：Http
+     */
+    public static final String BACKEND_HTTP = "http";
+
+    /**
+     * 拒绝原因：超过并发上限
+     */
+    public static final String REJECTED_LIMITER = "limiter";
+
+    /**
+     * 拒绝原因：线程池已满
+     */
+    public static final String REJECTED_EXECUTOR = "executor";
+
+    /**
+     * 指标注册表
+     */
+    private final MeterRegistry registry;
+
+    /**
+     * 带参构造函数
+     *
+     * @param registry 指标注册表
+     */
+    public GatewayMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 开始计时
+     *
+     * @return 返回值
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * 记录入口请求耗时
+     *
+     * @param sample 计时
+     * @param entry 入口
+     * @param code 结果
+     */
+    public void request(Timer.Sample sample, String entry, EnumRespCode code) {
+        sample.stop(Timer.builder("gateway.request")
+                .description("入口请求耗时")
+                .tag("entry", entry)
+                .tag("code", code.name())
+                .register(registry));
+    }
+
+    /**
+     * 记录后端调用耗时
+     *
+     * @param sample 计时
+     * @param backend 后端类型
+     * @param code 结果
+     */
+    public void backend(Timer.Sample sample, String backend, EnumRespCode code) {
+        sample.stop(Timer.builder("gateway.backend.response")
+                .description("后端应答耗时")
+                .tag("backend", backend)
+                .tag("code", code.name())
+                .register(registry));
+    }
+
+    /**
+     * 记录后端调用耗时，按异常区分超时/失败
+     *
+     * @param sample 计时
+     * @param backend 后端类型
+     * @param ex 异常，成功时为 null
+     */
+    public void backend(Timer.Sample sample, String backend, Throwable ex) {
+        backend(sample, backend, classify(ex));
+    }
+
+    /**
+     * 记录后端建连耗时
+     *
+     * @param backend 后端类型
+     * @param nanos 耗时 纳秒
+     */
+    public void connect(String backend, long nanos) {
+        Timer.builder("gateway.backend.connect")
+                .description("后端建连耗时")
+                .tag("backend", backend)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录拒绝
+     *
+     * @param entry 入口
+     * @param reason 原因
+     */
+    public void rejected(String entry, String reason) {
+        registry.counter("gateway.rejected", "entry", entry, "reason", reason).increment();
+    }
+
+    /**
+     * 记录熔断快速失败
+     *
+     * @param name 熔断器名称
+     */
+    public void circuitRejected(String name) {
+        registry.counter("gateway.circuit.rejected", "name", name).increment();
+    }
+
+    /**
+     * 记录幂等缓存结果
+     *
+     * @param name 缓存名称
+     * @param result 结果：miss/hit/coalesced
+     */
+    public void idempotency(String name, String result) {
+        registry.counter("gateway.idempotency", "name", name, "result", result).increment();
+    }
+
+    /**
+     * 登记幂等缓存条数
+     *
+     * @param name 缓存名称
+     * @param size 条数
+     */
+    public void idempotencySize(String name, Supplier<Number> size) {
+        Gauge.builder("gateway.idempotency.size", size)
+                .description("幂等缓存条数（含在途请求）")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * 解码报文长度分布
+     *
+     * @param name 通道名称
+     * @return 返回值
+     */
+    public DistributionSummary frameSize(String name) {
+        return DistributionSummary.builder("gateway.decoder.frame.size")
+                .description("解码报文长度")
+                .baseUnit("bytes")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * 写合并每次刷出的报文数
+     *
+     * @param name 通道名称
+     * @return 返回值
+     */
+    public DistributionSummary writeBatch(String name) {
+        return DistributionSummary.builder("gateway.netty.write.batch")
+                .description("写合并每次刷出的报文数")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * 写合并增加的时延
+     *
+     * @param name 通道名称
+     * @return 返回值
+     */
+    public Timer writeDelay(String name) {
+        return Timer.builder("gateway.netty.write.delay")
+                .description("写合并增加的时延")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * 登记 Netty 通道组的通道数与待写出字节数
+     *
+     * @param name 通道名称
+     * @param channels 通道组
+     */
+    public void channels(String name, ChannelGroup channels) {
+        Gauge.builder("gateway.netty.channels", channels, ChannelGroup::size)
+                .description("Netty 通道数")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("gateway.netty.pending.writes", channels, GatewayMetrics::pendingWriteBytes)
+                .description("Netty 待写出字节数")
+                .baseUnit("bytes")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * 指标注册表
+     *
+     * @return 返回值
+     */
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * 异常归类到应答码
+     *
+     * @param ex 异常，成功时为 null
+     * @return 返回值
+     */
+    public static EnumRespCode classify(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof SocketTimeoutException) {
+                return EnumRespCode.TIMEOUT;
+            }
+        }
+        return ex == null ? EnumRespCode.SUCCESS : EnumRespCode.FAIL;
+    }
+
+    private static double pendingWriteBytes(ChannelGroup channels) {
+        long total = 0;
+        for (Channel channel : channels) {
+            ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+            if (buffer != null) {
+                total += buffer.totalPendingWriteBytes();
+            }
+        }
+        return total;
+    }
+}
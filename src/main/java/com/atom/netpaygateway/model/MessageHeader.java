@@ -0,0 +1,80 @@
+package com.atom.netpaygateway.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 报文头：从报文中提取的少量字段（报文类型、报文标识、金额、行号等），不可变
+ * <p>
+ * 字段名为配置的元素路径（如 MsgId、GrpHdr/MsgId），未找到的字段不包含在内
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public final class MessageHeader {
+
+    /**
+     * 空报文头
+     */
+    private static final MessageHeader EMPTY = new MessageHeader(Collections.emptyMap());
+
+    /**
+     * 字段，按配置顺序
+     */
+    private final Map<String, String> fields;
+
+    private MessageHeader(Map<String, String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * 按字段名与提取结果创建
+     *
+     * @param names 字段名
+     * @param values 字段值，与字段名一一对应，未找到为 null
+     * @return 返回值
+     */
+    public static MessageHeader of(String[] names, String[] values) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (values[i] != null) {
+                fields.put(names[i], values[i]);
+            }
+        }
+        return fields.isEmpty() ? EMPTY : new MessageHeader(Collections.unmodifiableMap(fields));
+    }
+
+    /**
+     * 取字段值
+     *
+     * @param name 字段名
+     * @return 返回值，未找到返回 null
+     */
+    public String get(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * 所有已找到的字段
+     *
+     * @return 返回值
+     */
+    public Map<String, String> asMap() {
+        return fields;
+    }
+
+    /**
+     * 是否未找到任何字段
+     *
+     * @return 返回值
+     */
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.atom.netpaygateway.model;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+import io.netty.util.CharsetUtil;
+
+/**
+ * Socket 报文视图：持有一帧完整报文的缓冲区，调用 {@link #text()} 时才解码为 String
+ * <p>
+ * 引用计数与缓冲区一致，由 SimpleChannelInboundHandler 在 channelRead0 返回后释放；
+ * 需在释放前调用 {@link #text()}，解码结果缓存，释放后仍可读取
+ *
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class XmlMessage extends DefaultByteBufHolder {
+
+    /**
+     * 解码结果
+     */
+    private String text;
+
+    /**
+     * 带参构造函数
+     *
+     * @param content 报文，所有权转交本对象
+     */
+    public XmlMessage(ByteBuf content) {
+        super(content);
+    }
+
+    /**
+     * 报文长度 字节
+     *
+     * @return 返回值
+     */
+    public int length() {
+        return content().readableBytes();
+    }
+
+    /**
+     * 报文文本，首次调用时按 UTF-8 解码
+     *
+     * @return 返回值
+     */
+    public String text() {
+        if (text == null) {
+            text = content().toString(CharsetUtil.UTF_8);
+        }
+        return text;
+    }
+
+    @Override
+    public XmlMessage retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public XmlMessage touch(Object hint) {
+        super.touch(hint);
+        return this;
+    }
+}
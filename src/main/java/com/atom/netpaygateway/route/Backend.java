@@ -0,0 +1,239 @@
+package com.atom.netpaygateway.route;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后端节点及其被动健康数据：在途请求数、耗时 EWMA、错误率 EWMA
+ * <p>
+ * 耗时 EWMA 按时间衰减（时间常数 decayNanos），取峰值 EWMA：样本大于当前值时直接取样本，节点变慢立即生效，恢复后逐步回落。
+ * 失败的请求按惩罚耗时（不低于 penaltyNanos）计入，快速失败的节点不会因耗时短而被优先选择；错误率按样本数衰减，
+ * 不受请求速率影响。连续失败 {@link #EJECT_AFTER} 次后摘除 ejectNanos，期间代价为无穷大。
+ * 长时间没有样本的节点，计算代价时耗时与错误率按空闲时间继续衰减，摘除结束或恢复后的节点会重新获得探测流量
+ *
+ * @param <T> 节点地址类型
+ * @author Tom
+ * @date 18/10/2026
+ */
+public class Backend<T> {
+
+    /**
+     * 连续失败多少次后摘除
+     */
+    public static final int EJECT_AFTER = 5;
+
+    /**
+     * 错误率 EWMA 每个样本的权重
+     */
+    private static final double ERROR_WEIGHT = 0.1;
+
+    /**
+     * 节点地址
+     */
+    private final T target;
+
+    /**
+     * EWMA 时间常数 纳秒
+     */
+    private final long decayNanos;
+
+    /**
+     * 失败请求计入的最小耗时 纳秒
+     */
+    private final long penaltyNanos;
+
+    /**
+     * 摘除时长 纳秒
+     */
+    private final long ejectNanos;
+
+    /**
+     * 在途请求数
+     */
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    /**
+     * 耗时 EWMA 纳秒
+     */
+    private volatile double latencyEwma;
+
+    /**
+     * 错误率 EWMA，[0, 1]
+     */
+    private volatile double errorEwma;
+
+    /**
+     * 上次样本时间 纳秒
+     */
+    private volatile long lastSample = System.nanoTime();
+
+    /**
+     * 连续失败次数
+     */
+    private int consecutiveFailures;
+
+    /**
+     * 摘除截止时间 纳秒，0 表示未摘除
+     */
+    private volatile long ejectedUntil;
+
+    /**
+     * 带参构造函数
+     *
+     * @param target 节点地址
+     * @param decayNanos EWMA 时间常数 纳秒
+     * @param penaltyNanos 失败请求计入的最小耗时 纳秒
+     * @param ejectNanos 摘除时长 纳秒
+     */
+    public Backend(T target, long decayNanos, long penaltyNanos, long ejectNanos) {
+        this.target = target;
+        this.decayNanos = Math.max(1, decayNanos);
+        this.penaltyNanos = Math.max(0, penaltyNanos);
+        this.ejectNanos = Math.max(0, ejectNanos);
+    }
+
+    /**
+     * 开始一笔请求
+     *
+     * @return 返回值
+     */
+    public Call begin() {
+        outstanding.incrementAndGet();
+        return new Call(System.nanoTime());
+    }
+
+    /**
+     * 负载代价：耗时 EWMA ×（在途数 + 1），按错误率放大，越小越优先；摘除期间为无穷大
+     *
+     * @return 返回值
+     */
+    public double cost() {
+        long now = System.nanoTime();
+        if (isEjected(now)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double idle = Math.exp(-(double) Math.max(0, now - lastSample) / decayNanos);
+        return (latencyEwma * idle + 1) * (outstanding.get() + 1) / Math.max(0.05, 1 - errorEwma * idle);
+    }
+
+    /**
+     * 是否处于摘除期
+     *
+     * @return 返回值
+     */
+    public boolean isEjected() {
+        return isEjected(System.nanoTime());
+    }
+
+    private boolean isEjected(long now) {
+        long until = ejectedUntil;
+        return until != 0 && now - until < 0;
+    }
+
+    /**
+     * 节点地址
+     *
+     * @return 返回值
+     */
+    public T getTarget() {
+        return target;
+    }
+
+    /**
+     * 在途请求数
+     *
+     * @return 返回值
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * 耗时 EWMA 纳秒
+     *
+     * @return 返回值
+     */
+    public double getLatencyEwma() {
+        return latencyEwma;
+    }
+
+    /**
+     * 错误率 EWMA
+     *
+     * @return 返回值
+     */
+    public double getErrorEwma() {
+        return errorEwma;
+    }
+
+    private synchronized void onSample(long now, long rtt, boolean success) {
+        double weight = Math.exp(-(double) Math.max(0, now - lastSample) / decayNanos);
+        lastSample = now;
+        long sample = success ? rtt : Math.max(rtt, penaltyNanos);
+        latencyEwma = sample > latencyEwma ? sample : latencyEwma * weight + sample * (1 - weight);
+        errorEwma = errorEwma * (1 - ERROR_WEIGHT) + (success ? 0 : ERROR_WEIGHT);
+        if (success) {
+            consecutiveFailures = 0;
+        } else if (++consecutiveFailures >= EJECT_AFTER && ejectNanos > 0 && !isEjected(now)) {
+            consecutiveFailures = 0;
+            ejectedUntil = now + ejectNanos;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(target);
+    }
+
+    /**
+     * 一笔请求：结束时调用且只调用一次 {@link #success()}、{@link #failure()} 或 {@link #ignore()}
+     */
+    public final class Call {
+
+        /**
+         * 开始时间 纳秒
+         */
+        private final long start;
+
+        /**
+         * 是否已结束
+         */
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Call(long start) {
+            this.start = start;
+        }
+
+        /**
+         * 请求成功，以耗时作为样本
+         */
+        public void success() {
+            finish(true, true);
+        }
+
+        /**
+         * 请求失败/超时
+         */
+        public void failure() {
+            finish(true, false);
+        }
+
+        /**
+         * 请求取消，不计样本
+         */
+        public void ignore() {
+            finish(false, false);
+        }
+
+        private void finish(boolean sample, boolean success) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            outstanding.decrementAndGet();
+            if (sample) {
+                long now = System.nanoTime();
+                onSample(now, now - start, success);
+            }
+        }
+    }
+}
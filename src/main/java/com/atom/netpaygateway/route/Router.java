@@ -0,0 +1,224 @@
+package com.atom.netpaygateway.route;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * 多后端路由：按被动健康数据（在途请求数、耗时 EWMA、错误率 EWMA）选择负载代价最小的节点
+ * <p>
+ * p2c：随机取两个节点，选代价较小者，开销与节点数无关，且避免所有请求同时涌向同一个"最优"节点；
+ * least：遍历全部节点选代价最小者。只有一个节点时直接返回。
+ * p2c 选中处于摘除期的节点时改为遍历全部节点，只要还有未摘除的节点就不会选中摘除节点。
+ * 节点列表可在运行时整体替换，保留节点沿用原有统计，已选中旧节点的请求照常完成
+ *
+ * @param <T> 节点地址类型
+ * @author Tom
+ * @date 18/10/2026
+ */
+@Slf4j
+public class Router<T> {
+
+    /**
+     * 策略：两次随机选择
+     */
+    public static final String P2C = "p2c";
+
+    /**
+     * 策略：最小代价
+     */
+    public static final String LEAST = "least";
+
+    /**
+     * 路由名称
+     */
+    private final String name;
+
+    /**
+     * 是否两次随机选择
+     */
+    private final boolean p2c;
+
+    /**
+     * EWMA 时间常数 纳秒
+     */
+    private final long decayNanos;
+
+    /**
+     * 失败请求计入的最小耗时 纳秒
+     */
+    private final long penaltyNanos;
+
+    /**
+     * 摘除时长 纳秒
+     */
+    private final long ejectNanos;
+
+    /**
+     * 节点，整体替换
+     */
+    private volatile List<Backend<T>> backends;
+
+    /**
+     * 带参构造函数
+     *
+     * @param name 路由名称
+     * @param targets 节点地址
+     * @param strategy 策略：p2c、least
+     * @param decayMillis EWMA 时间常数 毫秒
+     * @param penaltyMillis 失败请求计入的最小耗时 毫秒
+     * @param ejectMillis 连续失败后的摘除时长 毫秒
+     */
+    public Router(String name, List<T> targets, String strategy, long decayMillis, long penaltyMillis,
+                  long ejectMillis) {
+        if (!P2C.equalsIgnoreCase(strategy) && !LEAST.equalsIgnoreCase(strategy)) {
+            throw new IllegalArgumentException("unknown route strategy: " + strategy);
+        }
+        this.name = name;
+        this.p2c = P2C.equalsIgnoreCase(strategy);
+        this.decayNanos = decayMillis * 1_000_000L;
+        this.penaltyNanos = penaltyMillis * 1_000_000L;
+        this.ejectNanos = ejectMillis * 1_000_000L;
+        this.backends = newBackends(targets, Collections.emptyList());
+        log.info("路由：{}，策略：{}，节点：{}", name, strategy, backends);
+    }
+
+    /**
+     * 替换节点列表：仍保留的节点沿用原有统计
+     *
+     * @param targets 节点地址
+     */
+    public synchronized void update(List<T> targets) {
+        List<Backend<T>> previous = backends;
+        backends = newBackends(targets, previous);
+        log.info("路由：{}，节点变更：{} -> {}", name, previous, backends);
+    }
+
+    private List<Backend<T>> newBackends(List<T> targets, List<Backend<T>> previous) {
+        if (targets == null || targets.isEmpty()) {
+            throw new IllegalArgumentException("no backend configured: " + name);
+        }
+        List<Backend<T>> list = new ArrayList<>(targets.size());
+        for (T target : targets) {
+            Backend<T> backend = previous.stream().filter(b -> b.getTarget().equals(target)).findFirst()
+                    .orElseGet(() -> new Backend<>(target, decayNanos, penaltyNanos, ejectNanos));
+            list.add(backend);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 按字符串配置创建路由
+     *
+     * @param name 路由名称
+     * @param targets 节点地址配置
+     * @param parser 地址解析
+     * @param strategy 策略：p2c、least
+     * @param decayMillis EWMA 时间常数 毫秒
+     * @param penaltyMillis 失败请求计入的最小耗时 毫秒
+     * @param ejectMillis 连续失败后的摘除时长 毫秒
+     * @param <T> 节点地址类型
+     * @return 返回值
+     */
+    public static <T> Router<T> of(String name, List<String> targets, Function<String, T> parser, String strategy,
+                                   long decayMillis, long penaltyMillis, long ejectMillis) {
+        return new Router<>(name, parse(targets, parser), strategy, decayMillis, penaltyMillis, ejectMillis);
+    }
+
+    /**
+     * 解析节点地址配置，忽略空项
+     *
+     * @param targets 节点地址配置
+     * @param parser 地址解析
+     * @param <T> 节点地址类型
+     * @return 返回值
+     */
+    public static <T> List<T> parse(List<String> targets, Function<String, T> parser) {
+        List<T> parsed = new ArrayList<>(targets.size());
+        for (String target : targets) {
+            if (!target.trim().isEmpty()) {
+                parsed.add(parser.apply(target.trim()));
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * 选择节点
+     *
+     * @return 返回值
+     */
+    public Backend<T> select() {
+        List<Backend<T>> backends = this.backends;
+        int size = backends.size();
+        if (size == 1) {
+            return backends.get(0);
+        }
+        if (p2c) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+            Backend<T> a = backends.get(first);
+            Backend<T> b = backends.get(second);
+            Backend<T> chosen = a.cost() <= b.cost() ? a : b;
+            if (!chosen.isEjected()) {
+                return chosen;
+            }
+        }
+        Backend<T> best = backends.get(0);
+        double bestCost = best.cost();
+        for (int i = 1; i < size; i++) {
+            Backend<T> candidate = backends.get(i);
+            double cost = candidate.cost();
+            if (cost < bestCost) {
+                best = candidate;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 节点的失败是否已由路由隔离：该节点处于摘除期，且仍有未摘除的节点承接流量。
+     * 此时失败只反映单个节点，不应计入按后端类型统计的熔断器
+     *
+     * @param backend 节点
+     * @return 返回值
+     */
+    public boolean isolated(Backend<T> backend) {
+        if (!backend.isEjected()) {
+            return false;
+        }
+        for (Backend<T> other : backends) {
+            if (!other.isEjected()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 路由名称
+     *
+     * @return 返回值
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 全部节点
+     *
+     * @return 返回值
+     */
+    public List<Backend<T>> getBackends() {
+        return backends;
+    }
+}
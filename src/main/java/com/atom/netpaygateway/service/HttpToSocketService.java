@@ -1,8 +1,10 @@
 package com.atom.netpaygateway.service;
 
+import com.atom.netpaygateway.cache.IdempotencyCache;
 import com.atom.netpaygateway.client.SocketClientNetty;
 import com.atom.netpaygateway.client.SocketClientSingle;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -27,6 +29,13 @@ public class HttpToSocketService {
     @Autowired
     private SocketClientNetty socketClientNetty;
 
+    /**
+     * Http -> Socket 幂等缓存，重发的报文不再转发后端
+     */
+    @Autowired
+    @Qualifier("httpToSocketIdempotency")
+    private IdempotencyCache idempotency;
+
     /**
      * Http 转换到 Socket 请求实现-线程池方案
      *
@@ -34,7 +43,7 @@ public class HttpToSocketService {
      * @return 返回值
      */
     public String sendMessageWithPool(String request) {
-        return socketClientSingle.sendMessage(request);
+        return idempotency.executeSync(request, () -> socketClientSingle.sendMessage(request));
     }
 
     /**
@@ -44,6 +53,6 @@ public class HttpToSocketService {
      * @return 返回值
      */
     public Mono<String> sendMessageWithNetty(String request) {
-        return socketClientNetty.sendMessage(request);
+        return idempotency.executeMono(request, () -> socketClientNetty.sendMessage(request));
     }
 }
@@ -1,13 +1,27 @@
 package com.atom.netpaygateway.service;
 
+import com.atom.netpaygateway.cache.IdempotencyCache;
 import com.atom.netpaygateway.client.HttpClientNetty;
 import com.atom.netpaygateway.client.HttpClientSingle;
+import com.atom.netpaygateway.client.StreamingResponseHandler;
+import com.atom.netpaygateway.codec.ResponseSlot;
 import com.atom.netpaygateway.enums.EnumRespCode;
-import io.netty.channel.ChannelHandlerContext;
+import com.atom.netpaygateway.exception.CircuitOpenException;
+import com.atom.netpaygateway.limiter.AdaptiveLimiter;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import com.atom.netpaygateway.utils.LogUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.CharsetUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Socket -> Http 转换逻辑
  *
@@ -18,6 +32,33 @@ import org.springframework.stereotype.Service;
 @Service
 public class SocketToHttpService {
 
+    /**
+     * 应答结束符
+     */
+    private static final ByteBuf CRLF = Unpooled.unreleasableBuffer(
+            Unpooled.directBuffer(2).writeBytes("\r\n".getBytes(CharsetUtil.US_ASCII)));
+
+    /**
+     * 指标入口名-Netty方案
+     */
+    private static final String ENTRY_NETTY = "socketNetty";
+
+    /**
+     * 繁忙应答
+     */
+    private static final String BUSY_REPLY = "Error:" + EnumRespCode.BUSY.getCode() + "\r\n";
+
+    /**
+     * 熔断应答
+     */
+    private static final String CIRCUIT_OPEN_REPLY = "Error:" + EnumRespCode.FAIL.getCode() + "\r\n";
+
+    /**
+     * 流式转发：Http 应答分片到达即写回 Socket，不聚合完整应答，默认 否
+     */
+    @Value("${gateway.forward.http.streaming:false}")
+    private boolean streaming;
+
     /**
      * Http 请求实现-单笔
      */
@@ -30,6 +71,26 @@ public class SocketToHttpService {
     @Autowired
     private HttpClientNetty httpClientNetty;
 
+    /**
+     * Socket -> Http 准入控制（Netty 方案，线程池方案在入口处控制）
+     */
+    @Autowired
+    @Qualifier("socketToHttpLimiter")
+    private AdaptiveLimiter limiter;
+
+    /**
+     * Socket -> Http 幂等缓存，重发的报文不再转发后端（字节模式、流式转发不经过缓存）
+     */
+    @Autowired
+    @Qualifier("socketToHttpIdempotency")
+    private IdempotencyCache idempotency;
+
+    /**
+     * 网关指标
+     */
+    @Autowired
+    private GatewayMetrics metrics;
+
     /**
      * Socket 转换到 Http 请求实现-线程池方案
      *
@@ -37,7 +98,7 @@ public class SocketToHttpService {
      * @return 返回值
      */
     public String sendMessageWithPool(String request) {
-        String response = httpClientSingle.sendMessage(request);
+        String response = idempotency.executeSync(request, () -> httpClientSingle.sendMessage(request));
         if (request == null) {
             response = EnumRespCode.FAIL.getCode();
         }
@@ -47,18 +108,127 @@ public class SocketToHttpService {
     /**
      * Socket 转换到 Http 请求实现-Netty方案
      *
-     * @param ctx 参数说明
+     * @param slot 应答槽位
      * @param s 参数说明
      */
-    public void sendMessageWithNetty(ChannelHandlerContext ctx, String s) {
-        httpClientNetty.sendMessage(s).whenComplete((response, ex) -> {
+    public void sendMessageWithNetty(ResponseSlot slot, String s) {
+        Timer.Sample sample = metrics.start();
+        AdaptiveLimiter.Permit permit = acquire(slot, sample);
+        if (permit == null) {
+            return;
+        }
+        if (streaming) {
+            StreamingResponseHandler handler = new StreamingResponseHandler(slot);
+            relay(slot, handler, permit, sample, httpClientNetty.relayMessage(s, handler));
+            return;
+        }
+        idempotency.execute(s, () -> httpClientNetty.sendMessage(s)).whenComplete((response, ex) -> {
+            release(permit, sample, ex);
             if (ex == null) {
-                log.info("Socket -> Http 响应信息是:{}", response);
-                ctx.writeAndFlush(response + "\r\n");
+                LogUtils.payload("Socket -> Http 响应信息是", response);
+                slot.complete(response + "\r\n");
             } else {
                 log.warn("Socket -> Http 响应信息是:{}", ex.getMessage());
-                ctx.writeAndFlush("Error:" + ex.getMessage() + "\r\n");
+                slot.complete(errorReply(ex));
             }
         });
     }
+
+    /**
+     * Socket 转换到 Http 请求实现-Netty字节模式：报文缓冲区直通 Http 请求体，应答字节直接写回
+     *
+     * @param slot 应答槽位
+     * @param frame 报文，所有权转交本方法
+     */
+    public void sendMessageWithNetty(ResponseSlot slot, ByteBuf frame) {
+        Timer.Sample sample = metrics.start();
+        AdaptiveLimiter.Permit permit = acquire(slot, sample);
+        if (permit == null) {
+            frame.release();
+            return;
+        }
+        if (streaming) {
+            StreamingResponseHandler handler = new StreamingResponseHandler(slot);
+            relay(slot, handler, permit, sample, httpClientNetty.relayMessage(frame, handler));
+            return;
+        }
+        httpClientNetty.sendMessage(frame).whenComplete((response, ex) -> {
+            release(permit, sample, ex);
+            if (ex == null) {
+                LogUtils.payload("Socket -> Http 响应信息是", response);
+                slot.complete(Unpooled.wrappedBuffer(response, CRLF.duplicate()));
+            } else {
+                log.warn("Socket -> Http 响应信息是:{}", ex.getMessage());
+                slot.complete(errorReply(ex));
+            }
+        });
+    }
+
+    /**
+     * 流式转发完成处理：成功时补写应答结束符；
+     * 失败时若尚未转发任何字节则回写错误信息，否则下游已收到残缺报文，只能关闭连接
+     *
+     * @param slot 应答槽位
+     * @param handler 流式转发处理器
+     * @param permit 准入许可
+     * @param sample 入口计时
+     * @param future 转发结果
+     */
+    private void relay(ResponseSlot slot, StreamingResponseHandler handler, AdaptiveLimiter.Permit permit,
+                       Timer.Sample sample, CompletableFuture<Long> future) {
+        future.whenComplete((relayed, ex) -> {
+            release(permit, sample, ex);
+            if (ex == null) {
+                log.info("Socket -> Http 流式响应长度是:{}", relayed);
+                slot.complete(CRLF.duplicate());
+            } else if (handler.relayed() == 0) {
+                log.warn("Socket -> Http 响应信息是:{}", ex.getMessage());
+                slot.complete(errorReply(ex));
+            } else {
+                log.warn("Socket -> Http 流式响应中断，已转发:{}，关闭连接:{}", handler.relayed(), ex.getMessage());
+                slot.complete();
+                slot.channel().close();
+            }
+        });
+    }
+
+    /**
+     * 申请准入许可，超过并发上限时直接应答繁忙
+     *
+     * @param slot 应答槽位
+     * @param sample 入口计时
+     * @return 许可；已应答繁忙时返回 null
+     */
+    private AdaptiveLimiter.Permit acquire(ResponseSlot slot, Timer.Sample sample) {
+        AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            log.warn("Socket -> Http 并发已达上限：{}，应答繁忙", limiter.getLimit());
+            metrics.rejected(ENTRY_NETTY, GatewayMetrics.REJECTED_LIMITER);
+            metrics.request(sample, ENTRY_NETTY, EnumRespCode.BUSY);
+            slot.complete(BUSY_REPLY);
+        }
+        return permit;
+    }
+
+    /**
+     * 错误应答：熔断时回写失败码，其余回写异常信息
+     *
+     * @param ex 异常
+     * @return 返回值
+     */
+    private static String errorReply(Throwable ex) {
+        return CircuitOpenException.isCause(ex) ? CIRCUIT_OPEN_REPLY : "Error:" + ex.getMessage() + "\r\n";
+    }
+
+    private void release(AdaptiveLimiter.Permit permit, Timer.Sample sample, Throwable ex) {
+        if (ex == null) {
+            permit.success();
+        } else if (CircuitOpenException.isCause(ex)) {
+            // 熔断时请求未到达后端，不作为拥塞样本
+            permit.ignore();
+        } else {
+            permit.failure(ex);
+        }
+        metrics.request(sample, ENTRY_NETTY, GatewayMetrics.classify(ex));
+    }
 }
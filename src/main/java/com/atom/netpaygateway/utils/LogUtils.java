@@ -1,10 +1,248 @@
 package com.atom.netpaygateway.utils;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
- * 日志工具
+ * 日志工具：报文日志的采样、截断与敏感字段脱敏
+ * <p>
+ * 报文日志统一输出到 netpay.payload 日志器，只格式化前 maxLength 个字符，
+ * 可在 EventLoop 线程中调用；输出经异步追加器（logback-spring.xml）写出，调用线程不做磁盘 I/O
  *
  * @author Tom
  * @date 7/3/2025
  */
-public class LogUtils {
+public final class LogUtils {
+
+    /**
+     * 报文日志器
+     */
+    private static final Logger PAYLOAD_LOG = LoggerFactory.getLogger("netpay.payload");
+
+    /**
+     * 脱敏替换文本
+     */
+    private static final String MASK = "***";
+
+    /**
+     * 采样比例，(0, 1]，1 表示全部记录
+     */
+    private static volatile double sampleRate = 1.0;
+
+    /**
+     * 报文最多记录的字符数
+     */
+    private static volatile int maxLength = 2048;
+
+    /**
+     * 需脱敏的元素名（不含命名空间前缀）
+     */
+    private static volatile Set<String> maskFields = Collections.emptySet();
+
+    private LogUtils() {
+    }
+
+    /**
+     * 更新报文日志配置
+     *
+     * @param rate 采样比例
+     * @param length 报文最多记录的字符数
+     * @param fields 需脱敏的元素名
+     */
+    public static void configure(double rate, int length, Set<String> fields) {
+        sampleRate = rate;
+        maxLength = Math.max(0, length);
+        maskFields = Collections.unmodifiableSet(new HashSet<>(fields));
+    }
+
+    /**
+     * 记录报文（按采样比例，截断并脱敏）
+     *
+     * @param title 标题，如 "Socket -> Http 请求信息是"
+     * @param payload 报文
+     */
+    public static void payload(String title, CharSequence payload) {
+        if (!PAYLOAD_LOG.isInfoEnabled() || !sampled()) {
+            return;
+        }
+        PAYLOAD_LOG.info("{}：{}", title, abbreviate(payload));
+    }
+
+    /**
+     * 记录报文-字节模式：只解码前 maxLength 个字节（退到字符边界），不转换整个缓冲区
+     *
+     * @param title 标题
+     * @param payload 报文，不改变读写位置
+     */
+    public static void payload(String title, ByteBuf payload) {
+        if (!PAYLOAD_LOG.isInfoEnabled() || !sampled()) {
+            return;
+        }
+        int length = payload.readableBytes();
+        int prefix = utf8Prefix(payload, maxLength);
+        String text = payload.toString(payload.readerIndex(), prefix, CharsetUtil.UTF_8);
+        if (prefix < length) {
+            PAYLOAD_LOG.info("{}（{}字节）：{}...", title, length, mask(text));
+        } else {
+            PAYLOAD_LOG.info("{}（{}字节）：{}", title, length, mask(text));
+        }
+    }
+
+    /**
+     * 截断并脱敏，用于告警等不采样的日志
+     *
+     * @param payload 报文
+     * @return 返回值
+     */
+    public static String abbreviate(CharSequence payload) {
+        if (payload == null) {
+            return null;
+        }
+        int length = payload.length();
+        if (length <= maxLength) {
+            return mask(payload.toString());
+        }
+        return mask(payload.subSequence(0, maxLength).toString()) + "...（共" + length + "字符）";
+    }
+
+    /**
+     * 不超过 max 字节的前缀长度，截断位置落在多字节 UTF-8 字符中间时退到该字符之前
+     *
+     * @param payload 报文
+     * @param max 最多字节数
+     * @return 返回值
+     */
+    static int utf8Prefix(ByteBuf payload, int max) {
+        int length = payload.readableBytes();
+        if (length <= max) {
+            return length;
+        }
+        int prefix = max;
+        // 截断位置之后是续字节（10xxxxxx）说明切开了一个字符
+        while (prefix > 0 && (payload.getByte(payload.readerIndex() + prefix) & 0xC0) == 0x80) {
+            prefix--;
+        }
+        return prefix;
+    }
+
+    private static boolean sampled() {
+        double rate = sampleRate;
+        return rate >= 1.0 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * 将敏感元素的内容替换为 ***：从开始标签到对应的结束标签之间全部替换，包括 CDATA、注释与子元素；
+     * 找不到结束标签（报文被截断或格式不完整）时替换到末尾
+     *
+     * @param text 报文（或报文前缀）
+     * @return 返回值
+     */
+    static String mask(String text) {
+        Set<String> fields = maskFields;
+        if (fields.isEmpty() || text.indexOf('<') == -1) {
+            return text;
+        }
+        StringBuilder sb = null;
+        int copied = 0;
+        int from = 0;
+        while ((from = text.indexOf('<', from)) != -1) {
+            int nameStart = from + 1;
+            if (nameStart < text.length() && (text.charAt(nameStart) == '/' || text.charAt(nameStart) == '?'
+                    || text.charAt(nameStart) == '!')) {
+                from = nameStart;
+                continue;
+            }
+            int nameEnd = nameStart;
+            while (nameEnd < text.length() && !isNameEnd(text.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            int tagEnd = text.indexOf('>', nameEnd);
+            if (tagEnd == -1) {
+                break;
+            }
+            String name = localName(text, nameStart, nameEnd);
+            if (text.charAt(tagEnd - 1) != '/' && fields.contains(name)) {
+                int contentEnd = contentEnd(text, tagEnd + 1, name);
+                if (sb == null) {
+                    sb = new StringBuilder(text.length());
+                }
+                sb.append(text, copied, tagEnd + 1).append(MASK);
+                copied = contentEnd == -1 ? text.length() : contentEnd;
+                if (contentEnd == -1) {
+                    break;
+                }
+                from = contentEnd;
+                continue;
+            }
+            from = tagEnd + 1;
+        }
+        if (sb == null) {
+            return text;
+        }
+        return sb.append(text, copied, text.length()).toString();
+    }
+
+    /**
+     * 敏感元素对应结束标签的位置：跳过 CDATA 与注释，同名子元素计入嵌套层数
+     *
+     * @param text 报文
+     * @param from 内容开始位置
+     * @param name 元素名（不含命名空间前缀）
+     * @return 结束标签 {@code </} 的位置，找不到时返回 -1
+     */
+    private static int contentEnd(String text, int from, String name) {
+        int depth = 1;
+        while ((from = text.indexOf('<', from)) != -1) {
+            if (text.startsWith("<![CDATA[", from)) {
+                from = skipPast(text, from, "]]>");
+            } else if (text.startsWith("<!--", from)) {
+                from = skipPast(text, from, "-->");
+            } else {
+                boolean end = from + 1 < text.length() && text.charAt(from + 1) == '/';
+                int nameStart = end ? from + 2 : from + 1;
+                int nameEnd = nameStart;
+                while (nameEnd < text.length() && !isNameEnd(text.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                int tagEnd = text.indexOf('>', nameEnd);
+                if (tagEnd == -1) {
+                    return -1;
+                }
+                if (name.equals(localName(text, nameStart, nameEnd))) {
+                    if (end && --depth == 0) {
+                        return from;
+                    }
+                    if (!end && text.charAt(tagEnd - 1) != '/') {
+                        depth++;
+                    }
+                }
+                from = tagEnd + 1;
+            }
+            if (from == -1) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipPast(String text, int from, String mark) {
+        int index = text.indexOf(mark, from);
+        return index == -1 ? -1 : index + mark.length();
+    }
+
+    private static boolean isNameEnd(char c) {
+        return c == '>' || c == '/' || Character.isWhitespace(c);
+    }
+
+    private static String localName(String text, int start, int end) {
+        int colon = text.lastIndexOf(':', end - 1);
+        return text.substring(colon >= start ? colon + 1 : start, end);
+    }
 }
@@ -0,0 +1,91 @@
+package com.atom.netpaygateway.cache;
+
+import com.atom.netpaygateway.enums.EnumRespCode;
+import com.atom.netpaygateway.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class IdempotencyCacheTests {
+
+    private static final String REQUEST = "<Document><MsgId>1</MsgId></Document>";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final IdempotencyCache cache = new IdempotencyCache("test", true, "MsgId", 100, Duration.ofMinutes(1),
+            16, new GatewayMetrics(registry));
+
+    @Test
+    void coalescesInFlightAndReturnsCachedReply() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> backend = new CompletableFuture<>();
+        CompletableFuture<String> first = cache.execute(REQUEST, () -> {
+            calls.incrementAndGet();
+            return backend;
+        });
+        CompletableFuture<String> duplicate = cache.execute(REQUEST, () -> {
+            calls.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        assertFalse(duplicate.isDone());
+
+        // 超过堆外阈值的应答以堆外内存保存，取出后内容不变
+        String reply = "<Document><MsgId>1</MsgId><Result>成功</Result></Document>";
+        backend.complete(reply);
+        assertEquals(reply, first.join());
+        assertEquals(reply, duplicate.join());
+        assertEquals(reply, cache.executeSync(REQUEST, () -> "unexpected"));
+        assertEquals(1, calls.get());
+        assertEquals(1, count("miss"));
+        assertEquals(1, count("coalesced"));
+        assertEquals(1, count("hit"));
+    }
+
+    @Test
+    void failedRepliesAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals(EnumRespCode.FAIL.getCode(), cache.executeSync(REQUEST, () -> {
+            calls.incrementAndGet();
+            return EnumRespCode.FAIL.getCode();
+        }));
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("timeout"));
+        assertEquals(true, cache.execute(REQUEST, () -> {
+            calls.incrementAndGet();
+            return failed;
+        }).isCompletedExceptionally());
+        assertEquals("ok", cache.executeSync(REQUEST, () -> {
+            calls.incrementAndGet();
+            return "ok";
+        }));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void keysIgnoreElementsInCommentsAndCdata() {
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals("1", cache.executeSync(REQUEST, () -> {
+            calls.incrementAndGet();
+            return "1";
+        }));
+        // 注释与 CDATA 中的 MsgId 不是报文标识，与多路复用关联标识的提取规则一致
+        assertEquals("1", cache.executeSync("<Document><!-- <MsgId>2</MsgId> --><MsgId>1</MsgId></Document>",
+                () -> "unexpected"));
+        assertEquals("2", cache.executeSync("<Document><![CDATA[<MsgId>1</MsgId>]]><MsgId>2</MsgId></Document>",
+                () -> {
+                    calls.incrementAndGet();
+                    return "2";
+                }));
+        assertEquals(2, calls.get());
+    }
+
+    private double count(String result) {
+        return registry.counter("gateway.idempotency", "name", "test", "result", result).count();
+    }
+}
@@ -0,0 +1,33 @@
+package com.atom.netpaygateway.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.asynchttpclient.request.body.Body;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ByteBufBodyGeneratorTests {
+
+    @Test
+    void keepsContentUntilWriteCompletes() throws Exception {
+        ByteBuf content = Unpooled.copiedBuffer("<Document>1</Document>", CharsetUtil.UTF_8);
+        ByteBufBodyGenerator generator = new ByteBufBodyGenerator(content);
+        Body body = generator.createBody();
+        ByteBuf chunk = Unpooled.buffer(10);
+        assertEquals(Body.BodyState.CONTINUE, body.transferTo(chunk));
+
+        // 应答超时先完成，写出仍在进行
+        generator.release();
+        assertEquals(1, content.refCnt());
+        ByteBuf rest = Unpooled.buffer(64);
+        assertEquals(Body.BodyState.STOP, body.transferTo(rest));
+        assertEquals("<Document>1</Document>", chunk.toString(CharsetUtil.UTF_8) + rest.toString(CharsetUtil.UTF_8));
+
+        body.close();
+        assertEquals(0, content.refCnt());
+        assertThrows(IllegalStateException.class, () -> generator.createBody().transferTo(Unpooled.buffer(64)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.atom.netpaygateway.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.asynchttpclient.AsyncHandler;
+import org.asynchttpclient.netty.EagerResponseBodyPart;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ByteBufResponseHandlerTests {
+
+    @Test
+    void abortsWhenContentLengthExceedsLimit() {
+        ByteBufResponseHandler handler = new ByteBufResponseHandler(UnpooledByteBufAllocator.DEFAULT, 16);
+        assertEquals(AsyncHandler.State.ABORT,
+                handler.onHeadersReceived(new DefaultHttpHeaders().add(HttpHeaderNames.CONTENT_LENGTH, "2147483648")));
+        assertThrows(RuntimeException.class, handler::onCompleted);
+    }
+
+    @Test
+    void abortsWhenReceivedBytesExceedLimit() {
+        ByteBufResponseHandler handler = new ByteBufResponseHandler(UnpooledByteBufAllocator.DEFAULT, 16);
+        assertEquals(AsyncHandler.State.CONTINUE, handler.onHeadersReceived(new DefaultHttpHeaders()));
+        assertEquals(AsyncHandler.State.CONTINUE, handler.onBodyPartReceived(part(10)));
+        assertEquals(AsyncHandler.State.ABORT, handler.onBodyPartReceived(part(10)));
+        assertThrows(RuntimeException.class, handler::onCompleted);
+    }
+
+    @Test
+    void collectsBodyWithinLimit() {
+        ByteBufResponseHandler handler = new ByteBufResponseHandler(UnpooledByteBufAllocator.DEFAULT, 16);
+        handler.onHeadersReceived(new DefaultHttpHeaders().add(HttpHeaderNames.CONTENT_LENGTH, "16"));
+        handler.onBodyPartReceived(part(8));
+        handler.onBodyPartReceived(part(8));
+        ByteBuf body = handler.onCompleted();
+        assertEquals(16, body.readableBytes());
+        body.release();
+    }
+
+    @Test
+    void unboundedHandlerCapsPreallocationAndAcceptsLargeDeclaredLength() {
+        ByteBufResponseHandler handler = new ByteBufResponseHandler(UnpooledByteBufAllocator.DEFAULT);
+        assertEquals(AsyncHandler.State.CONTINUE,
+                handler.onHeadersReceived(new DefaultHttpHeaders().add(HttpHeaderNames.CONTENT_LENGTH, "2147483647")));
+        assertEquals(AsyncHandler.State.CONTINUE, handler.onBodyPartReceived(part(ByteBufResponseHandler.MAX_PREALLOCATE)));
+        assertEquals(AsyncHandler.State.CONTINUE, handler.onBodyPartReceived(part(16)));
+        ByteBuf body = handler.onCompleted();
+        assertEquals(ByteBufResponseHandler.MAX_PREALLOCATE + 16, body.readableBytes());
+        body.release();
+    }
+
+    private static EagerResponseBodyPart part(int length) {
+        return new EagerResponseBodyPart(Unpooled.wrappedBuffer(new byte[length]), false);
+    }
+}
@@ -0,0 +1,61 @@
+package com.atom.netpaygateway.client;
+
+import com.atom.netpaygateway.codec.ResponseSequencer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.asynchttpclient.AsyncHandler;
+import org.asynchttpclient.netty.EagerResponseBodyPart;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingResponseHandlerTests {
+
+    @Test
+    void pausesUpstreamReadsInlineWhileTargetIsUnwritable() {
+        ResponseSequencer sequencer = new ResponseSequencer(1);
+        EmbeddedChannel target = new EmbeddedChannel(sequencer);
+        EmbeddedChannel upstream = new EmbeddedChannel();
+        StreamingResponseHandler handler = new StreamingResponseHandler(sequencer.next());
+        handler.onTcpConnectSuccess(null, upstream);
+
+        target.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        assertEquals(AsyncHandler.State.CONTINUE, handler.onBodyPartReceived(part(8)));
+
+        // 暂停须在分片回调返回前生效，不能等 EventLoop 下一轮
+        ReadCounter reads = new ReadCounter();
+        upstream.pipeline().addFirst(reads);
+        upstream.read();
+        assertEquals(0, reads.count);
+
+        target.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+        target.runPendingTasks();
+        assertEquals(1, reads.count);
+        assertEquals(8L, handler.relayed());
+
+        target.finishAndReleaseAll();
+        upstream.finishAndReleaseAll();
+    }
+
+    private static EagerResponseBodyPart part(int length) {
+        ByteBuf content = Unpooled.wrappedBuffer(new byte[length]);
+        return new EagerResponseBodyPart(content, false);
+    }
+
+    /**
+     * 统计到达传输层的 read()
+     */
+    private static final class ReadCounter extends ChannelOutboundHandlerAdapter {
+
+        private int count;
+
+        @Override
+        public void read(ChannelHandlerContext ctx) {
+            count++;
+            ctx.read();
+        }
+    }
+}
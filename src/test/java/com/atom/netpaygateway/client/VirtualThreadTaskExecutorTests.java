@@ -0,0 +1,61 @@
+package com.atom.netpaygateway.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadTaskExecutorTests {
+
+    @Test
+    void limitsConcurrencyAndRejectsBeyondWaitingCapacity() throws Exception {
+        // 以平台线程工厂验证并发/排队控制，与线程类型无关
+        VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(Thread::new, 2, 1, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Runnable task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        };
+        for (int i = 0; i < 3; i++) {
+            executor.execute(task);
+        }
+        assertThrows(TaskRejectedException.class, () -> executor.execute(task));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (running.get() < 2 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        release.countDown();
+        executor.destroy();
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, executor.getPendingCount());
+    }
+
+    @Test
+    void createsVirtualThreadsWhenSupported() throws Exception {
+        ThreadFactory factory = VirtualThreadTaskExecutor.virtualThreadFactory("test-");
+        if (Runtime.version().feature() < 21) {
+            assertNull(factory);
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        new VirtualThreadTaskExecutor(factory, 1, 0, 1).execute(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
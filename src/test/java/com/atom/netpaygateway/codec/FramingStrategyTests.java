@@ -0,0 +1,65 @@
+package com.atom.netpaygateway.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FramingStrategyTests {
+
+    @Test
+    void prefixesAsciiHeaderIncludingItself() {
+        FramingStrategy framing = FramingStrategy.of("length", "ascii", 6, true, 1024);
+        EmbeddedChannel channel = new EmbeddedChannel(framing.encoder());
+        channel.writeOutbound(buffer("<Document>1</Document>"));
+
+        assertEquals("000028<Document>1</Document>", read(channel.readOutbound()));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void splitsBinaryFramesWithoutScanning() {
+        FramingStrategy framing = FramingStrategy.of("length", "binary", 2, false, 1024);
+        EmbeddedChannel channel = new EmbeddedChannel(framing.newDecoder(null));
+        ByteBuf wire = Unpooled.buffer()
+                .writeShort(5).writeBytes("<a/>1".getBytes(CharsetUtil.UTF_8))
+                .writeShort(5).writeBytes("<a/>2".getBytes(CharsetUtil.UTF_8));
+        channel.writeInbound(wire.readRetainedSlice(8));
+        assertEquals("<a/>1", read(channel.readInbound()));
+        assertNull(channel.readInbound());
+
+        channel.writeInbound(wire);
+        assertEquals("<a/>2", read(channel.readInbound()));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void rejectsInvalidHeaders() {
+        assertThrows(IllegalArgumentException.class, () -> FramingStrategy.of("length", "binary", 5, false, 1024));
+        assertThrows(IllegalArgumentException.class, () -> FramingStrategy.of("fixed", "binary", 4, false, 1024));
+        assertTrue(FramingStrategy.of("delimiter", "binary", 5, false, 1024).isDelimited());
+
+        EmbeddedChannel channel = new EmbeddedChannel(
+                FramingStrategy.of("length", "ascii", 4, false, 1024).newDecoder(null));
+        assertThrows(DecoderException.class, () -> channel.writeInbound(buffer("00x4<a/>")));
+    }
+
+    private static ByteBuf buffer(String s) {
+        return Unpooled.copiedBuffer(s, CharsetUtil.UTF_8);
+    }
+
+    private static String read(ByteBuf buf) {
+        try {
+            return buf.toString(CharsetUtil.UTF_8);
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.atom.netpaygateway.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestEncoderTests {
+
+    @Test
+    void encodesUtf8IntoExactlySizedDirectBuffer() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RequestEncoder(PooledByteBufAllocator.DEFAULT));
+        String message = "<Document><Nm>张三 €</Nm></Document>";
+        channel.writeOutbound(message);
+
+        ByteBuf buf = channel.readOutbound();
+        byte[] expected = message.getBytes(CharsetUtil.UTF_8);
+        assertTrue(buf.isDirect());
+        assertEquals(expected.length, buf.capacity());
+        assertEquals(message, buf.toString(CharsetUtil.UTF_8));
+        buf.release();
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,29 @@
+package com.atom.netpaygateway.codec;
+
+import com.atom.netpaygateway.model.XmlMessage;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseDecoderTests {
+
+    @Test
+    void decodesTextLazilyAndKeepsItAfterRelease() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ResponseDecoder());
+        String message = "<Document>应答</Document>";
+        channel.writeInbound(Unpooled.copiedBuffer(message, CharsetUtil.UTF_8));
+
+        XmlMessage decoded = channel.readInbound();
+        assertEquals(message.getBytes(CharsetUtil.UTF_8).length, decoded.length());
+        String text = decoded.text();
+        assertSame(text, decoded.text());
+        assertTrue(decoded.release());
+        assertEquals(message, decoded.text());
+        channel.finishAndReleaseAll();
+    }
+}
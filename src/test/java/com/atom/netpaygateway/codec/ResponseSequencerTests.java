@@ -0,0 +1,63 @@
+package com.atom.netpaygateway.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringEncoder;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseSequencerTests {
+
+    @Test
+    void writesRepliesInRequestOrder() {
+        ResponseSequencer sequencer = new ResponseSequencer(16);
+        EmbeddedChannel channel = new EmbeddedChannel(new StringEncoder(CharsetUtil.UTF_8), sequencer);
+        ResponseSlot first = sequencer.next();
+        ResponseSlot second = sequencer.next();
+        ResponseSlot third = sequencer.next();
+
+        third.complete("3");
+        second.write("2a");
+        assertNull(channel.readOutbound());
+
+        first.write("1a");
+        assertEquals("1a", read(channel));
+        first.complete("1b");
+        assertEquals("1b", read(channel));
+        assertEquals("2a", read(channel));
+        assertNull(channel.readOutbound());
+
+        second.complete("2b");
+        assertEquals("2b", read(channel));
+        assertEquals("3", read(channel));
+        assertEquals(0, sequencer.inFlight());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void pausesReadingAtPipelineLimit() {
+        ResponseSequencer sequencer = new ResponseSequencer(2);
+        EmbeddedChannel channel = new EmbeddedChannel(new StringEncoder(CharsetUtil.UTF_8), sequencer);
+        ResponseSlot first = sequencer.next();
+        sequencer.next();
+        assertFalse(channel.config().isAutoRead());
+
+        first.complete("1");
+        assertTrue(channel.config().isAutoRead());
+        channel.finishAndReleaseAll();
+    }
+
+    private static String read(EmbeddedChannel channel) {
+        ByteBuf reply = channel.readOutbound();
+        try {
+            return reply.toString(CharsetUtil.UTF_8);
+        } finally {
+            reply.release();
+        }
+    }
+}
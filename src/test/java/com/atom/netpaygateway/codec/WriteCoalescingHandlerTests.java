@@ -0,0 +1,69 @@
+package com.atom.netpaygateway.codec;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.string.StringEncoder;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WriteCoalescingHandlerTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final DistributionSummary batch = DistributionSummary.builder("batch").register(registry);
+
+    private final Timer delay = Timer.builder("delay").register(registry);
+
+    @Test
+    void flushesOnceAfterWindow() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new WriteCoalescingHandler(100, 1024, batch, delay), new StringEncoder(CharsetUtil.UTF_8));
+        channel.freezeTime();
+        channel.writeAndFlush("a");
+        channel.writeAndFlush("b");
+        channel.writeAndFlush("c");
+        assertNull(channel.readOutbound());
+
+        channel.advanceTimeBy(100, TimeUnit.MICROSECONDS);
+        channel.runScheduledPendingTasks();
+        assertEquals("a", read(channel));
+        assertEquals("b", read(channel));
+        assertEquals("c", read(channel));
+        assertEquals(1, batch.count());
+        assertEquals(3, batch.totalAmount());
+        assertEquals(1, delay.count());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void flushesImmediatelyAtByteBudget() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new WriteCoalescingHandler(1_000_000, 4, batch, delay), new StringEncoder(CharsetUtil.UTF_8));
+        channel.writeAndFlush("ab");
+        assertNull(channel.readOutbound());
+
+        channel.writeAndFlush("cd");
+        assertEquals("ab", read(channel));
+        assertEquals("cd", read(channel));
+        assertEquals(1, batch.count());
+        assertEquals(2, batch.totalAmount());
+        channel.finishAndReleaseAll();
+    }
+
+    private static String read(EmbeddedChannel channel) {
+        ByteBuf buf = channel.readOutbound();
+        try {
+            return buf.toString(CharsetUtil.UTF_8);
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.atom.netpaygateway.codec;
+
+import com.atom.netpaygateway.model.MessageHeader;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class XmlFieldExtractorTests {
+
+    @Test
+    void extractsConfiguredPathsFromBytes() {
+        XmlFieldExtractor extractor = new XmlFieldExtractor(Arrays.asList("GrpHdr/MsgId", "Amt", "BkCd", "Nm"));
+        ByteBuf frame = Unpooled.copiedBuffer("<?xml version=\"1.0\"?><!-- <MsgId>c</MsgId> -->"
+                + "<ns:Document xmlns:ns=\"urn:x\"><Ref><MsgId>r</MsgId></Ref><ns:GrpHdr>"
+                + "<ns:MsgId> 2026 </ns:MsgId></ns:GrpHdr><![CDATA[<Amt>9</Amt>]]>"
+                + "<Ntry a=\"x>y\"><Amt Ccy=\"CNY\">100.00</Amt><BkCd/></Ntry></ns:Document>", CharsetUtil.UTF_8);
+        int readerIndex = frame.readerIndex();
+
+        MessageHeader header = extractor.extract(frame);
+        assertEquals("2026", header.get("GrpHdr/MsgId"));
+        assertEquals("100.00", header.get("Amt"));
+        assertEquals("", header.get("BkCd"));
+        assertNull(header.get("Nm"));
+        assertEquals(3, header.asMap().size());
+        assertEquals(readerIndex, frame.readerIndex());
+        frame.release();
+    }
+
+    @Test
+    void stopsAtFirstMatch() {
+        XmlFieldExtractor extractor = new XmlFieldExtractor(Arrays.asList("MsgId"));
+        ByteBuf frame = Unpooled.copiedBuffer("<Document><MsgId>1</MsgId><MsgId>2</MsgId><Broken", CharsetUtil.UTF_8);
+
+        assertEquals("1", extractor.extract(frame).get("MsgId"));
+        frame.release();
+    }
+
+    @Test
+    void extractsFromStringLikeFromBytes() {
+        XmlFieldExtractor extractor = new XmlFieldExtractor(Arrays.asList("MsgId", "Amt"));
+        StringBuilder xml = new StringBuilder("<Document><!-- <MsgId>c</MsgId> --><MsgId><![CDATA[x]]>中文</MsgId>");
+        // 字段位于首个前缀之后，且跨越前缀边界
+        while (xml.length() < 3000) {
+            xml.append("<Ntry>行</Ntry>");
+        }
+        xml.append("<Amt> 100.00 </Amt></Document>");
+        ByteBuf frame = Unpooled.copiedBuffer(xml, CharsetUtil.UTF_8);
+
+        MessageHeader fromBytes = extractor.extract(frame);
+        MessageHeader fromString = extractor.extract(xml);
+        assertEquals(fromBytes.asMap(), fromString.asMap());
+        assertEquals("100.00", fromString.get("Amt"));
+        assertNull(extractor.extract("<Document><Amt>1</Amt></Document>").get("MsgId"));
+        frame.release();
+    }
+}
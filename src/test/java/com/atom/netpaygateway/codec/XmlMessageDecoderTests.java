@@ -0,0 +1,64 @@
+package com.atom.netpaygateway.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class XmlMessageDecoderTests {
+
+    @Test
+    void decodesEveryFrameInOneBuffer() {
+        EmbeddedChannel channel = new EmbeddedChannel(new XmlMessageDecoder());
+        channel.writeInbound(buffer("<Document>1</Document><Document>2</Document><Docu"));
+
+        assertEquals("<Document>1</Document>", read(channel));
+        assertEquals("<Document>2</Document>", read(channel));
+        assertNull(channel.readInbound());
+
+        channel.writeInbound(buffer("ment>3</Document>"));
+        assertEquals("<Document>3</Document>", read(channel));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void resumesEndMarkSplitAcrossSegments() {
+        EmbeddedChannel channel = new EmbeddedChannel(new XmlMessageDecoder());
+        String message = "<Document><MsgId>1</MsgId></Document>";
+        for (int i = 0; i < message.length(); i++) {
+            channel.writeInbound(buffer(message.substring(i, i + 1)));
+        }
+
+        assertEquals(message, read(channel));
+        assertNull(channel.readInbound());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void closesChannelOnFrameLongerThanLimit() {
+        EmbeddedChannel channel = new EmbeddedChannel(new XmlMessageDecoder(16));
+        channel.writeInbound(buffer("<Document>0123456789"));
+
+        assertNull(channel.readInbound());
+        assertFalse(channel.isOpen());
+        channel.finishAndReleaseAll();
+    }
+
+    private static ByteBuf buffer(String s) {
+        return Unpooled.copiedBuffer(s, CharsetUtil.UTF_8);
+    }
+
+    private static String read(EmbeddedChannel channel) {
+        ByteBuf frame = channel.readInbound();
+        try {
+            return frame.toString(CharsetUtil.UTF_8);
+        } finally {
+            frame.release();
+        }
+    }
+}
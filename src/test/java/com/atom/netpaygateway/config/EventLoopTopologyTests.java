@@ -0,0 +1,27 @@
+package com.atom.netpaygateway.config;
+
+import io.netty.channel.EventLoop;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EventLoopTopologyTests {
+
+    @Test
+    void currentReturnsCallingEventLoop() throws Exception {
+        EventLoopTopology topology = new EventLoopTopology(NettyTransport.select(NettyTransport.NIO), 2, true, 4);
+        try {
+            // NIO 不支持 SO_REUSEPORT，只有一个监听通道
+            assertFalse(topology.isReusePort());
+            assertEquals(1, topology.acceptors());
+
+            EventLoop loop = topology.ioGroup().next();
+            assertSame(loop, loop.submit(topology::current).get());
+            assertSame(topology.ioGroup(), topology.current().parent());
+        } finally {
+            topology.shutdown();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.atom.netpaygateway.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class HttpNettyControllerTests {
+
+    private HttpController controller;
+
+    private DisposableServer server;
+
+    @BeforeEach
+    void start() {
+        controller = Mockito.mock(HttpController.class);
+        Mockito.when(controller.recvMsg1(anyString())).thenAnswer(call -> Mono.just("ok:" + call.getArgument(0)));
+        HttpNettyController netty = new HttpNettyController();
+        ReflectionTestUtils.setField(netty, "controller", controller);
+        ReflectionTestUtils.setField(netty, "maxFrameSize", 16);
+        server = HttpServer.create().port(0).route(routes -> routes.post("/", netty::handle)).bindNow();
+    }
+
+    @AfterEach
+    void stop() {
+        server.disposeNow();
+    }
+
+    @Test
+    void forwardsBodyWithinLimit() {
+        assertEquals("200 ok:0123456789abcdef", post(ByteBufFlux.fromString(Mono.just("0123456789abcdef"))));
+    }
+
+    @Test
+    void rejectsDeclaredContentLengthOverLimit() {
+        assertEquals("413 9999", post(ByteBufFlux.fromString(Mono.just("0123456789abcdefg"))));
+        verify(controller, never()).recvMsg1(anyString());
+    }
+
+    @Test
+    void rejectsChunkedBodyOnceReceivedBytesExceedLimit() {
+        assertEquals("413 9999", post(ByteBufFlux.fromString(Flux.just("01234567", "89abcdef", "g"))));
+        verify(controller, never()).recvMsg1(anyString());
+    }
+
+    private String post(ByteBufFlux body) {
+        return HttpClient.create().port(server.port())
+                .post().uri("/").send(body)
+                .responseSingle((response, content) -> content.asString().defaultIfEmpty("")
+                        .map(text -> response.status().code() + " " + text))
+                .block();
+    }
+}
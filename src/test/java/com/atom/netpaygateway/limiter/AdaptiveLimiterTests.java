@@ -0,0 +1,63 @@
+package com.atom.netpaygateway.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTests {
+
+    @Test
+    void rejectsAtLimitAndReleasesOnce() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 10, 0.5, 2.0, 10);
+        AdaptiveLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveLimiter.Permit second = limiter.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(limiter.tryAcquire());
+
+        first.ignore();
+        first.ignore();
+        assertEquals(1, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void dropsShrinkLimitAndSuccessesGrowIt() {
+        // 样本耗时只有微秒级，放宽耗时容忍度，避免计时抖动被判为拥塞
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 8, 2, 10, 0.5, 1_000_000.0, 10);
+        limiter.tryAcquire().failure();
+        limiter.tryAcquire().failure(new IllegalStateException("business"));
+        assertEquals(8, limiter.getLimit());
+        limiter.tryAcquire().drop();
+        assertEquals(4, limiter.getLimit());
+        limiter.tryAcquire().failure(new TimeoutException());
+        limiter.tryAcquire().drop();
+        assertEquals(2, limiter.getLimit());
+
+        // 在途数达到上限一半时才增长
+        for (int i = 0; i < 20; i++) {
+            AdaptiveLimiter.Permit held = limiter.tryAcquire();
+            limiter.tryAcquire().success();
+            held.ignore();
+        }
+        assertTrue(limiter.getLimit() > 2);
+    }
+
+    @Test
+    void shrinksAtMostOncePerRttInterval() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 8, 2, 10, 0.5, 2.0, 10);
+        AdaptiveLimiter.Permit slow = limiter.tryAcquire();
+        Thread.sleep(200);
+        slow.success();
+
+        limiter.tryAcquire().drop();
+        limiter.tryAcquire().drop();
+        limiter.tryAcquire().drop();
+        assertEquals(4, limiter.getLimit());
+    }
+}
@@ -0,0 +1,48 @@
+package com.atom.netpaygateway.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CircuitBreakerTests {
+
+    @Test
+    void opensOnFailureRateAndClosesAfterProbes() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 0.5, 60_000, 1.0, 50, 2);
+        breaker.tryAcquire().success();
+        breaker.tryAcquire().failure();
+        breaker.tryAcquire().success();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.tryAcquire().failure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+
+        Thread.sleep(60);
+        CircuitBreaker.Permit first = breaker.tryAcquire();
+        CircuitBreaker.Permit second = breaker.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        // 半开状态只放行 halfOpenCalls 笔探测
+        assertNull(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        first.success();
+        second.success();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    @Test
+    void slowCallsOpenAndFailedProbeReopens() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 2, 1.0, 0, 0.5, 0, 1);
+        breaker.tryAcquire().success();
+        Thread.sleep(1);
+        breaker.tryAcquire().success();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        breaker.tryAcquire().failure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
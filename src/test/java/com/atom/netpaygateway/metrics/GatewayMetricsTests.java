@@ -0,0 +1,33 @@
+package com.atom.netpaygateway.metrics;
+
+import com.atom.netpaygateway.enums.EnumRespCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GatewayMetricsTests {
+
+    @Test
+    void classifiesTimeoutsThroughWrappers() {
+        assertEquals(EnumRespCode.SUCCESS, GatewayMetrics.classify(null));
+        assertEquals(EnumRespCode.TIMEOUT, GatewayMetrics.classify(new CompletionException(new TimeoutException())));
+        assertEquals(EnumRespCode.TIMEOUT, GatewayMetrics.classify(new RuntimeException(new SocketTimeoutException())));
+        assertEquals(EnumRespCode.FAIL, GatewayMetrics.classify(new IllegalStateException("closed")));
+    }
+
+    @Test
+    void recordsBackendTimerPerCode() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GatewayMetrics metrics = new GatewayMetrics(registry);
+        metrics.backend(metrics.start(), GatewayMetrics.BACKEND_HTTP, new TimeoutException());
+        metrics.backend(metrics.start(), GatewayMetrics.BACKEND_HTTP, (Throwable) null);
+
+        assertEquals(1, registry.get("gateway.backend.response").tag("code", "TIMEOUT").timer().count());
+        assertEquals(1, registry.get("gateway.backend.response").tag("code", "SUCCESS").timer().count());
+    }
+}
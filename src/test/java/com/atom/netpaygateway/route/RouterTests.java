@@ -0,0 +1,111 @@
+package com.atom.netpaygateway.route;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouterTests {
+
+    @Test
+    void prefersBackendWithFewerOutstandingCalls() {
+        Router<String> router = new Router<>("test", Arrays.asList("a", "b"), Router.LEAST, 10_000, 1000, 5000);
+        Backend<String> a = router.getBackends().get(0);
+        Backend<String> b = router.getBackends().get(1);
+        assertSame(a, router.select());
+
+        Backend<String>.Call call = a.begin();
+        assertSame(b, router.select());
+
+        // 取消不计样本，重复结束只归还一次
+        call.ignore();
+        call.success();
+        assertEquals(0, a.getOutstanding());
+        assertEquals(0, a.getLatencyEwma());
+        assertSame(a, router.select());
+    }
+
+    @Test
+    void p2cAvoidsFailingBackend() {
+        Router<String> router = new Router<>("test", Arrays.asList("a", "b"), Router.P2C, 10_000, 1000, 5000);
+        Backend<String> b = router.getBackends().get(1);
+        b.begin().failure();
+        assertTrue(b.getErrorEwma() > 0);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("a", router.select().getTarget());
+        }
+    }
+
+    @Test
+    void p2cAvoidsFastFailingBackend() {
+        Router<String> router = new Router<>("test", Arrays.asList("dead", "healthy"), Router.P2C, 10_000, 1000, 5000);
+        int dead = 0;
+        for (int i = 0; i < 2000; i++) {
+            Backend<String> backend = router.select();
+            Backend<String>.Call call = backend.begin();
+            if ("dead".equals(backend.getTarget())) {
+                // 立即失败，实际耗时远小于健康节点
+                dead++;
+                call.failure();
+            } else {
+                busyWait(20_000);
+                call.success();
+            }
+        }
+        assertTrue(dead <= Backend.EJECT_AFTER, "dead backend selected " + dead + " times");
+    }
+
+    @Test
+    void ejectsAfterConsecutiveFailuresAndIsolatesThem() {
+        Router<String> router = new Router<>("test", Arrays.asList("a", "b"), Router.LEAST, 10_000, 0, 5000);
+        Backend<String> a = router.getBackends().get(0);
+        Backend<String> b = router.getBackends().get(1);
+        for (int i = 0; i < Backend.EJECT_AFTER; i++) {
+            assertFalse(a.isEjected());
+            a.begin().failure();
+        }
+        assertTrue(a.isEjected());
+        assertEquals(Double.POSITIVE_INFINITY, a.cost());
+        assertTrue(router.isolated(a));
+        for (int i = 0; i < 100; i++) {
+            assertSame(b, router.select());
+        }
+
+        // 全部节点都被摘除时不再隔离，失败照常计入熔断器
+        for (int i = 0; i < Backend.EJECT_AFTER; i++) {
+            b.begin().failure();
+        }
+        assertFalse(router.isolated(a));
+        assertNotNull(router.select());
+    }
+
+    @Test
+    void updateKeepsStatsOfRetainedBackends() {
+        Router<String> router = new Router<>("test", Arrays.asList("a", "b"), Router.P2C, 10_000, 1000, 5000);
+        Backend<String> a = router.getBackends().get(0);
+        Backend<String>.Call call = a.begin();
+
+        router.update(Arrays.asList("c", "a"));
+        assertEquals(2, router.getBackends().size());
+        assertSame(a, router.getBackends().get(1));
+        assertNotSame(a, router.getBackends().get(0));
+
+        // 旧节点上的请求照常结束
+        call.success();
+        assertEquals(0, a.getOutstanding());
+    }
+
+    private static void busyWait(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() - end < 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.atom.netpaygateway.utils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogUtilsTests {
+
+    @Test
+    void masksSensitiveElementsIgnoringPrefix() {
+        LogUtils.configure(1.0, 2048, new HashSet<>(Arrays.asList("AcctNo", "IdNo")));
+        String xml = "<Document><ns:AcctNo>6222020200001234</ns:AcctNo><Amt>10.00</Amt><IdNo/>"
+                + "<IdNo type=\"1\">110101</IdNo></Document>";
+
+        assertEquals("<Document><ns:AcctNo>***</ns:AcctNo><Amt>10.00</Amt><IdNo/>"
+                + "<IdNo type=\"1\">***</IdNo></Document>", LogUtils.abbreviate(xml));
+    }
+
+    @Test
+    void truncatesAndMasksOpenElementAtCut() {
+        LogUtils.configure(1.0, 24, new HashSet<>(Arrays.asList("AcctNo")));
+        String xml = "<Document><AcctNo>6222020200001234</AcctNo></Document>";
+
+        assertEquals("<Document><AcctNo>***...（共" + xml.length() + "字符）", LogUtils.abbreviate(xml));
+    }
+
+    @Test
+    void masksCdataAndChildElementsUpToMatchingEndTag() {
+        LogUtils.configure(1.0, 2048, new HashSet<>(Arrays.asList("Pwd", "Card")));
+
+        assertEquals("<Pwd>***</Pwd>", LogUtils.abbreviate("<Pwd><![CDATA[s3cret]]></Pwd>"));
+        assertEquals("<Pwd>***</Pwd>", LogUtils.abbreviate("<Pwd><![CDATA[</Pwd>s3cret]]></Pwd>"));
+        String xml = "<Document><Card><No>6222000011112222</No><Card>x</Card></Card><Amt>1</Amt></Document>";
+        assertEquals("<Document><Card>***</Card><Amt>1</Amt></Document>", LogUtils.abbreviate(xml));
+    }
+
+    @Test
+    void masksToEndWhenEndTagIsCutOff() {
+        LogUtils.configure(1.0, 30, new HashSet<>(Arrays.asList("Card")));
+        String xml = "<Document><Card><No>6222000011112222</No></Card></Document>";
+
+        assertEquals("<Document><Card>***...（共" + xml.length() + "字符）", LogUtils.abbreviate(xml));
+    }
+
+    @Test
+    void byteModePrefixStopsAtCharacterBoundary() {
+        ByteBuf payload = Unpooled.copiedBuffer("<A>中文</A>", CharsetUtil.UTF_8);
+        // "<A>" 3 字节，"中" 3 字节：前缀 5 字节会切开 "中"
+        assertEquals(3, LogUtils.utf8Prefix(payload, 5));
+        assertEquals(6, LogUtils.utf8Prefix(payload, 6));
+        assertEquals(payload.readableBytes(), LogUtils.utf8Prefix(payload, 100));
+        payload.release();
+    }
+}